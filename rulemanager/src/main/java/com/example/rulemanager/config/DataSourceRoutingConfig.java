@@ -0,0 +1,78 @@
+package com.example.rulemanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting, active only when rulemanager.datasource.replica.url is set.
+ *
+ * The application DataSource is a {@link LazyConnectionDataSourceProxy}: the physical connection
+ * is only fetched at the first statement, by which time the transaction has marked it read-only
+ * or not. Read-only transactions ({@link ReadOnlyTransactional}) go to the replica, everything
+ * else (writes, schema update, non-transactional reads such as ruleset compilation) to the primary.
+ *
+ * With open-in-view the connection is held for the rest of the request, so read-only
+ * transactions must only be used on request paths that do not also write.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rulemanager.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    /**
+     * The replica pool is owned by the monitor rather than exposed as a DataSource bean, so the
+     * actuator db health check (which covers every DataSource bean) does not report the whole
+     * application down while reads are simply falling back to the primary.
+     * Username/password default to the primary's.
+     */
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(DataSourceProperties properties, Environment environment,
+                                                     @Value("${rulemanager.datasource.replica.url}") String url,
+                                                     @Value("${rulemanager.datasource.replica.username:}") String username,
+                                                     @Value("${rulemanager.datasource.replica.password:}") String password,
+                                                     @Value("${rulemanager.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                                     @Value("${rulemanager.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                                                     @Value("${rulemanager.datasource.replica.probe-timeout-seconds:2}") int probeTimeoutSeconds) {
+        HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("rulemanager.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setJdbcUrl(url);
+        if (!username.isEmpty()) replica.setUsername(username);
+        if (!password.isEmpty()) replica.setPassword(password);
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        // the replica may be down at startup; the pool must still come up and fall back to primary
+        replica.setInitializationFailTimeout(-1);
+
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replica, lagQuery, maxLagSeconds, probeTimeoutSeconds);
+        monitor.probe();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaHealthMonitor monitor) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaFallbackDataSource(primary, monitor.getReplica(), monitor));
+        return proxy;
+    }
+}
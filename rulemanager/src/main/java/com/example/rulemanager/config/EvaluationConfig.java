@@ -0,0 +1,52 @@
+package com.example.rulemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class EvaluationConfig {
+
+    /**
+     * Worker pool for parallel bulk evaluation. Bounded queue with caller-runs, so a producer that
+     * outpaces the workers evaluates on its own thread instead of buffering records without limit.
+     */
+    @Bean(name = "evaluationExecutor", destroyMethod = "shutdown")
+    public ExecutorService evaluationExecutor(@Value("${rulemanager.evaluation.threads:0}") int threads,
+                                              @Value("${rulemanager.evaluation.queue-capacity:1000}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "rule-eval-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool replaying sampled evaluations against shadow rulesets. Small and bounded, and it rejects
+     * instead of running on the caller: shadow work is dropped rather than ever slowing live requests.
+     */
+    @Bean(name = "shadowExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService shadowExecutor(@Value("${rulemanager.shadow.threads:2}") int threads,
+                                          @Value("${rulemanager.shadow.queue-capacity:200}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "rule-shadow-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
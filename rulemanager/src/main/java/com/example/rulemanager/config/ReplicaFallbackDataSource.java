@@ -0,0 +1,48 @@
+package com.example.rulemanager.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read-only side of the routing: the replica while {@link ReplicaHealthMonitor} considers it
+ * usable, otherwise (or when it refuses a connection) the primary.
+ */
+public class ReplicaFallbackDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealthMonitor monitor;
+
+    public ReplicaFallbackDataSource(DataSource primary, DataSource replica, ReplicaHealthMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (monitor.isUsable()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException ex) {
+                monitor.markDown(ex);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (monitor.isUsable()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException ex) {
+                monitor.markDown(ex);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+}
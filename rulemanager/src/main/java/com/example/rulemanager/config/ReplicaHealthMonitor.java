@@ -0,0 +1,131 @@
+package com.example.rulemanager.config;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Decides whether read-only work may go to the replica.
+ *
+ * The replica is probed on a schedule: it must answer within the timeout and, when a lag query is
+ * configured, report a lag no greater than maxLagSeconds. After a local write, reads stay on the
+ * primary for the same lag window so this node always reads its own writes (query cache results
+ * fetched from a replica that has not caught up would otherwise be cached as fresh).
+ */
+public class ReplicaHealthMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final int probeTimeoutSeconds;
+
+    private volatile boolean up;
+    private volatile boolean probed;
+    private volatile long lagSeconds = -1;
+    private volatile long lastLocalWriteAt;
+
+    public ReplicaHealthMonitor(DataSource replica, String lagQuery, long maxLagSeconds, int probeTimeoutSeconds) {
+        this.replica = replica;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+    }
+
+    public boolean isUsable() {
+        return up && System.currentTimeMillis() - lastLocalWriteAt > maxLagSeconds * 1000;
+    }
+
+    public DataSource getReplica() { return replica; }
+
+    public boolean isUp() { return up; }
+
+    public long getLagSeconds() { return lagSeconds; }
+
+    /**
+     * Called when a connection to the replica could not be obtained; the next probe may restore it.
+     */
+    public void markDown(SQLException cause) {
+        if (up) log.warn("replica unavailable, reading from primary: {}", cause.getMessage());
+        up = false;
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        if (!committed.isRemote()) lastLocalWriteAt = System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${rulemanager.datasource.replica.probe-ms:5000}")
+    public void probe() {
+        boolean wasUp = up;
+        boolean report = wasUp || !probed;
+        probed = true;
+        try (Connection con = replica.getConnection()) {
+            if (!con.isValid(probeTimeoutSeconds)) throw new SQLException("connection not valid");
+            try {
+                lagSeconds = lagQuery == null ? 0 : queryLag(con);
+            } catch (SQLException ex) {
+                lagSeconds = -1;
+                up = false;
+                if (report) log.warn("replica lag query failed, reading from primary (set "
+                        + "rulemanager.datasource.replica.lag-query= to disable the lag check): {}", ex.getMessage());
+                return;
+            }
+            up = lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+            if (!up) {
+                if (report) log.warn("replica lagging ({} s, limit {} s), reading from primary", lagSeconds, maxLagSeconds);
+                return;
+            }
+        } catch (SQLException ex) {
+            lagSeconds = -1;
+            up = false;
+            if (report) log.warn("replica probe failed, reading from primary: {}", ex.getMessage());
+            return;
+        }
+        if (!wasUp) log.info("replica available (lag {} s), routing read-only transactions to it", lagSeconds);
+    }
+
+    @Override
+    public void close() {
+        if (replica instanceof Closeable c) {
+            try {
+                c.close();
+            } catch (IOException ex) {
+                log.warn("could not close replica pool: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lag in seconds from the first column named Seconds_Behind_* (MySQL SHOW REPLICA STATUS) or
+     * else the first column. No row means the server is not replicating (0); a NULL value means
+     * replication is stopped (-1, unusable).
+     */
+    private long queryLag(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.setQueryTimeout(probeTimeoutSeconds);
+            try (ResultSet rs = st.executeQuery(lagQuery)) {
+                if (!rs.next()) return 0;
+                ResultSetMetaData md = rs.getMetaData();
+                int column = 1;
+                for (int i = 1; i <= md.getColumnCount(); i++) {
+                    if (md.getColumnLabel(i).startsWith("Seconds_Behind")) { column = i; break; }
+                }
+                long lag = rs.getLong(column);
+                return rs.wasNull() ? -1 : lag;
+            }
+        }
+    }
+}
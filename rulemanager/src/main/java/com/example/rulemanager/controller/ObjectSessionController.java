@@ -0,0 +1,88 @@
+package com.example.rulemanager.controller;
+
+import com.example.rulemanager.service.ObjectSessionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Stateful sessions per business object: changes are applied incrementally to a long-lived session of
+ * the ruleset mapped to the object (see {@link ObjectSessionService}).
+ */
+@RestController
+@RequestMapping("/api/objects")
+public class ObjectSessionController {
+
+    private final ObjectSessionService objectSessionService;
+
+    public ObjectSessionController(ObjectSessionService objectSessionService) {
+        this.objectSessionService = objectSessionService;
+    }
+
+    /**
+     * Apply changed facts to the object's session: one object or an array of objects, each with an "@id".
+     * Fields of a known fact are merged onto it and only rules affected by the change re-fire; a new
+     * "@id" inserts a fact. Returns the rules fired and the resulting state of the changed facts.
+     */
+    @PatchMapping(value = "/{objectType}/{objectKey}/session", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> apply(@PathVariable String objectType, @PathVariable String objectKey,
+                                   @RequestBody JsonNode body) {
+        try {
+            return ResponseEntity.ok(objectSessionService.apply(objectType, objectKey, body));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(500).body("evaluation failed: " + ex.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{objectType}/{objectKey}/session/facts/{factId}")
+    public ResponseEntity<?> deleteFact(@PathVariable String objectType, @PathVariable String objectKey,
+                                        @PathVariable String factId) {
+        try {
+            return ResponseEntity.ok(objectSessionService.deleteFact(objectType, objectKey, factId));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(500).body("evaluation failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Facts of the object's session and the facts rules derived from them; persisted inputs only when
+     * the session was evicted from memory.
+     */
+    @GetMapping("/{objectType}/{objectKey}/session")
+    public ResponseEntity<?> describe(@PathVariable String objectType, @PathVariable String objectKey) {
+        try {
+            return ResponseEntity.ok(objectSessionService.describe(objectType, objectKey));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Drop the object's session and its persisted facts; the next change starts from scratch.
+     */
+    @DeleteMapping("/{objectType}/{objectKey}/session")
+    public ResponseEntity<?> discard(@PathVariable String objectType, @PathVariable String objectKey) {
+        return objectSessionService.discard(objectType, objectKey)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Number of object sessions in memory, their estimated weight against the budget, and evictions.
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(objectSessionService.stats());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.rulemanager.controller;
 
 import com.example.rulemanager.model.RuleDefinition;
 import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.service.RuleSearchIndex;
 import com.example.rulemanager.service.RuleService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -11,15 +12,20 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class RuleController {
 
     private final RuleService service;
+    private final RuleSearchIndex searchIndex;
 
-    public RuleController(RuleService service) {
+    public RuleController(RuleService service, RuleSearchIndex searchIndex) {
         this.service = service;
+        this.searchIndex = searchIndex;
     }
 
     /* ================== UI Endpoints ================== */
@@ -44,7 +50,7 @@ public class RuleController {
     }
 
     @PostMapping("/rules")
-    public String saveRule(@ModelAttribute RuleDefinition rule) throws IOException {
+    public String saveRule(@ModelAttribute RuleDefinition rule, Model model) throws IOException {
 
         if (rule.getRuleType() == null) {
             rule.setRuleType(RuleType.DRL); // default
@@ -59,7 +65,14 @@ public class RuleController {
             rule.setRuleContent(null); // clear text
         }
 
-        service.save(rule);
+        try {
+            service.save(rule);
+        } catch (IllegalArgumentException ex) {
+            // e.g. decision table that does not compile
+            model.addAttribute("rule", rule);
+            model.addAttribute("error", ex.getMessage());
+            return "rule-form";
+        }
         return "redirect:/rules";
     }
 
@@ -104,4 +117,44 @@ public class RuleController {
         return service.getActiveRules();
     }
 
+    /**
+     * Full-text search over rule names and rule text. All terms must match; "term*" matches by prefix.
+     * Returns one page of hits, best first, each with the first matching line as a snippet.
+     */
+    @GetMapping("/api/rules/search")
+    @ResponseBody
+    public ResponseEntity<?> searchRules(@RequestParam("q") String query,
+                                         @RequestParam(required = false) Long rulesetId,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().body("q is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, 100));
+        long start = System.nanoTime();
+        RuleSearchIndex.Result result = searchIndex.search(query, rulesetId, Math.max(0, page), pageSize);
+        Map<Long, Map<String, Object>> snippets = searchIndex.snippets(result.hits(), query);
+
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (RuleSearchIndex.Hit hit : result.hits()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("ruleId", hit.ruleId());
+            m.put("rulesetId", hit.rulesetId());
+            m.put("ruleName", hit.ruleName());
+            m.put("ruleType", hit.ruleType());
+            m.put("score", hit.score());
+            m.put("snippet", snippets.get(hit.ruleId()));
+            hits.add(m);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("query", query);
+        body.put("total", result.total());
+        body.put("page", Math.max(0, page));
+        body.put("size", pageSize);
+        body.put("indexReady", searchIndex.isReady());
+        body.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        body.put("hits", hits);
+        return ResponseEntity.ok(body);
+    }
+
 }
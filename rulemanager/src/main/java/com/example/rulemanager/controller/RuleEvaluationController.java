@@ -0,0 +1,179 @@
+package com.example.rulemanager.controller;
+
+import com.example.rulemanager.dto.DmnEvaluationRequest;
+import com.example.rulemanager.service.CompiledRuleSet;
+import com.example.rulemanager.service.CompiledRuleSetCache;
+import com.example.rulemanager.service.DmnEvaluationService;
+import com.example.rulemanager.service.FactEvaluationService;
+import com.example.rulemanager.service.RuleService;
+import com.example.rulemanager.service.ShadowEvaluationService;
+import com.example.rulemanager.service.StreamingEvaluationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Evaluation endpoints running against the cached, compiled form of a ruleset.
+ */
+@RestController
+@RequestMapping("/api/rulesets")
+public class RuleEvaluationController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final DmnEvaluationService dmnEvaluationService;
+    private final FactEvaluationService factEvaluationService;
+    private final StreamingEvaluationService streamingEvaluationService;
+    private final ShadowEvaluationService shadowEvaluationService;
+    private final CompiledRuleSetCache cache;
+    private final int defaultChunkSize;
+
+    public RuleEvaluationController(DmnEvaluationService dmnEvaluationService,
+                                    FactEvaluationService factEvaluationService,
+                                    StreamingEvaluationService streamingEvaluationService,
+                                    ShadowEvaluationService shadowEvaluationService,
+                                    CompiledRuleSetCache cache,
+                                    @Value("${rulemanager.evaluation.stream-chunk-size:500}") int defaultChunkSize) {
+        this.dmnEvaluationService = dmnEvaluationService;
+        this.factEvaluationService = factEvaluationService;
+        this.streamingEvaluationService = streamingEvaluationService;
+        this.shadowEvaluationService = shadowEvaluationService;
+        this.cache = cache;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * Evaluate JSON facts against the ruleset. The body is one object or an array of objects;
+     * objects with an "@type" property bind to that declared fact type, others become Map facts.
+     * Returns the (mutated) facts and the names of the rules that fired. Rulesets marked deterministic
+     * answer a repeated input from the result cache, flagged with "cached": true. objectType/objectKey
+     * only tag the audit entry with the business object the evaluation was for.
+     */
+    @PostMapping(value = "/{id}/evaluate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> evaluate(@PathVariable Long id,
+                                      @RequestParam(required = false) String objectType,
+                                      @RequestParam(required = false) String objectKey,
+                                      InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(factEvaluationService.evaluateJson(id, objectType, objectKey, body));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuleService.BuildFailedException ex) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+        } catch (IllegalArgumentException | JsonProcessingException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(500).body("evaluation failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Bulk evaluation over NDJSON: one fact object per input line, one result line per record
+     * ({ "index", "firedRules", "fact" } or { "index", "error" }), streamed back chunk by chunk.
+     * parallel=true spreads each chunk over the evaluation pool; output order still matches input order.
+     */
+    @PostMapping(value = "/{id}/evaluate/stream", consumes = NDJSON, produces = NDJSON)
+    public ResponseEntity<?> evaluateStream(@PathVariable Long id,
+                                            @RequestParam(required = false) Integer chunkSize,
+                                            @RequestParam(defaultValue = "false") boolean parallel,
+                                            InputStream body) {
+        CompiledRuleSet compiled;
+        try {
+            // resolve (and compile) up front so a missing or broken ruleset still gets a proper status
+            compiled = cache.get(id);
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuleService.BuildFailedException ex) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(MediaType.TEXT_PLAIN)
+                    .body(ex.getMessage());
+        }
+        int size = chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+        StreamingResponseBody stream = out -> streamingEvaluationService.evaluate(compiled, body, out, size, parallel);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(stream);
+    }
+
+    /**
+     * Compiled-ruleset cache state: memory budget, current estimated weight, evictions and entries.
+     */
+    @GetMapping("/compiled")
+    public ResponseEntity<?> compiledCacheStats() {
+        return ResponseEntity.ok(cache.stats());
+    }
+
+    /**
+     * Pin a hot ruleset so it is never evicted for memory; unpin with DELETE.
+     */
+    @PostMapping("/{id}/pin")
+    public ResponseEntity<?> pin(@PathVariable Long id) {
+        cache.pin(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/pin")
+    public ResponseEntity<?> unpin(@PathVariable Long id) {
+        cache.unpin(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Shadow this ruleset with a DRAFT one before publishing it: sampleRate of the live evaluations
+     * (JSON and NDJSON) are replayed on the draft in the background and compared. Replaces any
+     * running shadow of the ruleset.
+     */
+    @PutMapping("/{id}/shadow")
+    public ResponseEntity<?> startShadow(@PathVariable Long id, @RequestParam Long draftId,
+                                         @RequestParam(defaultValue = "0.1") double sampleRate) {
+        try {
+            return ResponseEntity.ok(shadowEvaluationService.start(id, draftId, sampleRate));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    /**
+     * Shadow report: latency distributions of live and draft, rules-fired and output differences,
+     * and the most recent mismatching inputs.
+     */
+    @GetMapping("/{id}/shadow")
+    public ResponseEntity<?> shadowReport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(shadowEvaluationService.report(id));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}/shadow")
+    public ResponseEntity<?> stopShadow(@PathVariable Long id) {
+        return shadowEvaluationService.stop(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Evaluate a DMN decision (or decision service, or the whole model) with a JSON input context.
+     * Body example: { "modelName": "Pricing", "decisionName": "Discount", "context": { "Customer": { ... } } }
+     */
+    @PostMapping("/{id}/dmn/evaluate")
+    public ResponseEntity<?> evaluateDmn(@PathVariable Long id, @RequestBody DmnEvaluationRequest request) {
+        try {
+            return ResponseEntity.ok(dmnEvaluationService.evaluate(id, request));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(500).body("evaluation failed: " + ex.getMessage());
+        }
+    }
+}
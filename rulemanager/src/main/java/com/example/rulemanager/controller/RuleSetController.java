@@ -1,12 +1,29 @@
 package com.example.rulemanager.controller;
 
+import com.example.rulemanager.config.ReadOnlyTransactional;
+import com.example.rulemanager.dto.RuleSummary;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.jfr.ArtifactLoadEvent;
 import com.example.rulemanager.model.*;
 import com.example.rulemanager.repository.*;
+import com.example.rulemanager.service.RuleChangeFeed;
+import com.example.rulemanager.service.RuleService;
+import com.example.rulemanager.service.RuleSetExportService;
+import com.example.rulemanager.service.RuleSetImportService;
+import com.example.rulemanager.service.RuleSetVersionService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -27,12 +44,34 @@ public class RuleSetController {
     @Autowired
     private ObjectRulesetMappingRepository mappingRepository;
 
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private RuleChangeFeed changeFeed;
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private RuleSetVersionService versionService;
+
+    @Autowired
+    private RuleSetVersionEntryRepository versionEntryRepository;
+
+    @Autowired
+    private RuleSetImportService importService;
+
+    @Autowired
+    private RuleSetExportService exportService;
+
     // ===================== READ endpoints (ADDITIVE, safe) =====================
 
     /**
      * List all rulesets (used by UI).
      */
     @GetMapping("/rulesets")
+    @ReadOnlyTransactional
     public ResponseEntity<List<RuleSet>> listRuleSets() {
         List<RuleSet> list = ruleSetRepository.findAll();
         return ResponseEntity.ok(list);
@@ -47,12 +86,13 @@ public class RuleSetController {
      * }
      */
     @GetMapping("/rulesets/{id}")
+    @ReadOnlyTransactional
     public ResponseEntity<?> getRuleSetDetails(@PathVariable Long id) {
         Optional<RuleSet> opt = ruleSetRepository.findById(id);
         if (opt.isEmpty()) return ResponseEntity.notFound().build();
 
         RuleSet rs = opt.get();
-        List<RuleDefinition> rules = ruleRepository.findByRuleSet(rs);
+        List<RuleSummary> rules = ruleRepository.findSummariesByRuleSetId(rs.getId());
 
         Map<String,Object> payload = new HashMap<>();
         payload.put("ruleset", rs);
@@ -68,6 +108,39 @@ public class RuleSetController {
         return ResponseEntity.ok(payload);
     }
 
+    /**
+     * Export the whole ruleset as one ZIP streamed to the client: every rule artifact (named after the
+     * rule, so the archive can be re-imported), a manifest.json and, with kjar=true, the compiled KieModule.
+     */
+    @GetMapping("/rulesets/{id}/export")
+    public ResponseEntity<?> exportRuleSet(@PathVariable Long id,
+                                           @RequestParam(value = "kjar", defaultValue = "false") boolean kjar) {
+        RuleSetExportService.Export export;
+        try {
+            export = exportService.prepare(id, kjar);
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuleService.BuildFailedException ex) {
+            // KJAR requested but the ruleset does not build
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("export failed: " + ex.getMessage());
+        }
+        StreamingResponseBody body = out -> exportService.write(export, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportService.fileName(export) + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Server-Sent Events feed of publish, rule edit and mapping change events.
+     * Optional rulesetId narrows the feed; Last-Event-ID replays recent events missed while disconnected.
+     */
+    @GetMapping(value = "/rulesets/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long rulesetId,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeed.subscribe(rulesetId, lastEventId);
+    }
+
     // ===================== WRITE / action endpoints (existing behavior) =====================
 
     // Create a ruleset (draft)
@@ -92,6 +165,7 @@ public class RuleSetController {
      * For text files (.drl/.dmn) we store as ruleContent; for binary (xlsx) we store as ruleFile bytes.
      */
     @PostMapping("/rulesets/{rulesetId}/files")
+    @Transactional
     public ResponseEntity<?> uploadRuleFile(@PathVariable Long rulesetId,
                                             @RequestParam("file") MultipartFile file,
                                             @RequestParam(value = "orderIndex", required = false, defaultValue = "0") Integer orderIndex) {
@@ -123,16 +197,45 @@ public class RuleSetController {
             // associate to ruleset (RuleDefinition.ruleSet field expected)
             rd.setRuleSet(rs);
 
+            // compile decision tables to DRL now so a broken spreadsheet is rejected at upload
+            ruleService.prepareArtifact(rd);
+
             // save the rule definition
             RuleDefinition saved = ruleRepository.save(rd);
+            events.publishEvent(RuleChangeEvent.rule(RuleChangeType.RULE_SAVED, rs.getId(), rs.getVersion(), saved.getId()));
             return ResponseEntity.ok(saved);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (Exception ex) {
             return ResponseEntity.status(500).body("error storing file: " + ex.getMessage());
         }
     }
 
+    /**
+     * Bulk import: any number of .drl/.dmn/.xls/.xlsx files and/or .zip archives of them, stored in
+     * one transaction and validated with a single compile. All or nothing: 400 lists the problems.
+     * With replace=true the ruleset's current rules are removed first.
+     */
+    @PostMapping("/rulesets/{rulesetId}/import")
+    public ResponseEntity<?> importRuleFiles(@PathVariable Long rulesetId,
+                                             @RequestParam("files") List<MultipartFile> files,
+                                             @RequestParam(value = "replace", defaultValue = "false") boolean replace) {
+        try {
+            return ResponseEntity.ok(importService.importFiles(rulesetId, files, replace));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuleSetImportService.ImportFailedException ex) {
+            Map<String,Object> body = new HashMap<>();
+            body.put("error", ex.getMessage());
+            body.put("problems", ex.getProblems());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+
     // Publish ruleset (simple: set status PUBLISHED and increment version)
+    // The rule manifest of the new version is recorded so clients can later ask for deltas.
     @PostMapping("/rulesets/{rulesetId}/publish")
+    @Transactional
     public ResponseEntity<?> publish(@PathVariable Long rulesetId) {
         Optional<RuleSet> opt = ruleSetRepository.findById(rulesetId);
         if (opt.isEmpty()) return ResponseEntity.notFound().build();
@@ -140,6 +243,8 @@ public class RuleSetController {
         rs.setStatus("PUBLISHED");
         rs.setVersion(rs.getVersion() == null ? 1 : rs.getVersion() + 1);
         ruleSetRepository.save(rs);
+        versionService.snapshot(rs, ruleRepository.findByRuleSet(rs));
+        events.publishEvent(RuleChangeEvent.ruleset(RuleChangeType.RULESET_PUBLISHED, rs.getId(), rs.getVersion()));
         return ResponseEntity.ok(rs);
     }
 
@@ -148,6 +253,7 @@ public class RuleSetController {
      * If your ObjectRulesetMapping model uses a ruleSet relation instead, adapt accordingly.
      */
     @PostMapping("/objects/{objectType}/{objectKey}/mapping")
+    @Transactional
     public ResponseEntity<?> mapObject(@PathVariable String objectType,
                                        @PathVariable String objectKey,
                                        @RequestParam Long rulesetId,
@@ -199,6 +305,7 @@ public class RuleSetController {
 
         if (version != null) m.setRulesetVersion(version);
         mappingRepository.save(m);
+        events.publishEvent(RuleChangeEvent.mapping(objectType, objectKey, rulesetId, m.getRulesetVersion()));
         return ResponseEntity.ok(m);
     }
 
@@ -209,9 +316,11 @@ public class RuleSetController {
                 .map(rs -> {
                     // remove any object→ruleset mappings first (separate table)
                     try { mappingRepository.deleteByRulesetId(id); } catch (Exception ignore) {}
+                    versionEntryRepository.deleteByRulesetId(id);
 
                     // RuleSet → RuleDefinition uses cascade = ALL, orphanRemoval = true
                     ruleSetRepository.delete(rs);
+                    events.publishEvent(RuleChangeEvent.ruleset(RuleChangeType.RULESET_DELETED, id, rs.getVersion()));
                     return ResponseEntity.noContent().build();
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -253,8 +362,17 @@ public class RuleSetController {
             }
         }
 
+        // evaluation mode; takes effect on the next build (the update event drops the cached one)
+        if (dto.getParallelEvaluation() != null) {
+            rs.setParallelEvaluation(dto.getParallelEvaluation());
+        }
+        if (dto.getDeterministic() != null) {
+            rs.setDeterministic(dto.getDeterministic());
+        }
+
         // updatedAt handled by @PreUpdate in entity (you already have it)
         ruleSetRepository.save(rs);
+        events.publishEvent(RuleChangeEvent.ruleset(RuleChangeType.RULESET_UPDATED, rs.getId(), rs.getVersion()));
         return ResponseEntity.ok(rs);
     }
 
@@ -262,11 +380,102 @@ public class RuleSetController {
      * Endpoint used by DroolsEngine to fetch rules for an object.
      * This returns an array of objects compatible with RuleDefinition shape:
      * { ruleName, ruleContent, active, ruleType }
+     *
+     * Clients sending {@code Accept: application/cbor} get the same array encoded as CBOR,
+     * with binary artifacts (decision tables) carried as raw byte strings instead of base64.
      */
     @GetMapping("/objects/{objectType}/{objectKey}/rules")
-    public ResponseEntity<?> getRulesForObject(@PathVariable String objectType, @PathVariable String objectKey) {
-        // try different repository method signatures safely
+    @ReadOnlyTransactional
+    public ResponseEntity<?> getRulesForObject(@PathVariable String objectType,
+                                               @PathVariable String objectKey,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ArtifactLoadEvent load = new ArtifactLoadEvent();
+        load.begin();
+        RuleSet rs = resolveMappedRuleSet(objectType, objectKey);
+        if (rs == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<RuleDefinition> rules = ruleRepository.findByRuleSet(rs);
+        load.end();
+        if (load.shouldCommit()) {
+            load.purpose = "fetch";
+            load.rulesetId = rs.getId();
+            load.objectType = objectType;
+            load.objectKey = objectKey;
+            load.rules = rules == null ? 0 : rules.size();
+            load.bytes = rules == null ? 0 : ArtifactLoadEvent.contentBytes(rules);
+            load.commit();
+        }
+        if (rules == null || rules.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean binary = acceptsCbor(accept);
+        List<Map<String,Object>> defs = rules.stream()
+                .map(r -> toRuleArtifact(r, binary))
+                .collect(Collectors.toList());
+
+        if (binary) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_CBOR).body(defs);
+        }
+        return ResponseEntity.ok(defs);
+    }
+
+    /**
+     * Delta sync: rules added, modified or removed since a published version.
+     * Added/modified entries carry the full artifact (same shape as the rules fetch endpoint plus
+     * ruleId and contentHash); removed entries only carry identity. Responds 410 when no manifest
+     * exists for {@code since}, in which case the client must do a full fetch.
+     *
+     * The delta runs up to the current rules. When they differ from what was published as
+     * currentVersion, "includesUnpublished" is true and clients must not record currentVersion
+     * as the version they are synced to.
+     */
+    @GetMapping("/rulesets/{id}/changes")
+    @ReadOnlyTransactional
+    public ResponseEntity<?> getChangesSince(@PathVariable Long id,
+                                             @RequestParam Integer since,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Optional<RuleSet> opt = ruleSetRepository.findById(id);
+        if (opt.isEmpty()) return ResponseEntity.notFound().build();
+        RuleSet rs = opt.get();
+
+        if (!versionService.hasSnapshot(id, since)) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body("no manifest for version " + since + "; full resync required");
+        }
+
+        boolean binary = acceptsCbor(accept);
+        List<RuleDefinition> current = ruleRepository.findByRuleSet(rs);
+        RuleSetVersionService.Delta delta = versionService.diff(id, since, current);
+
+        Map<String,Object> payload = new HashMap<>();
+        payload.put("rulesetId", id);
+        payload.put("sinceVersion", since);
+        payload.put("currentVersion", rs.getVersion());
+        payload.put("includesUnpublished", !versionService.matchesSnapshot(id, rs.getVersion(), current));
+        payload.put("added", delta.added().stream().map(r -> toChangedArtifact(r, binary)).collect(Collectors.toList()));
+        payload.put("modified", delta.modified().stream().map(r -> toChangedArtifact(r, binary)).collect(Collectors.toList()));
+        payload.put("removed", delta.removed().stream().map(e -> {
+            Map<String,Object> m = new HashMap<>();
+            m.put("ruleId", e.getRuleId());
+            m.put("ruleName", e.getRuleName());
+            m.put("contentHash", e.getContentHash());
+            return m;
+        }).collect(Collectors.toList()));
 
+        if (binary) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_CBOR).body(payload);
+        }
+        return ResponseEntity.ok(payload);
+    }
+
+    /**
+     * Resolve the ruleset mapped to an object, or null when there is no usable mapping.
+     */
+    private RuleSet resolveMappedRuleSet(String objectType, String objectKey) {
+        // try different repository method signatures safely
         ObjectRulesetMapping m = null;
         try {
             m = mappingRepository.findFirstByObjectTypeAndObjectKey(objectType, objectKey);
@@ -287,40 +496,50 @@ public class RuleSetController {
         }
 
         if (m == null) {
-            return ResponseEntity.notFound().build();
+            return null;
         }
 
         // load RuleDefinitions for the mapped ruleset
         Long rulesetId = m.getRulesetId();
-        RuleSet rs = null;
         if (rulesetId != null) {
-            rs = ruleSetRepository.findById(rulesetId).orElse(null);
-        } else {
-            // mapping may store RuleSet relation
-            try { rs = m.getRuleSet(); } catch (Throwable t) { rs = null; }
-        }
-
-        if (rs == null) {
-            return ResponseEntity.notFound().build();
+            return ruleSetRepository.findById(rulesetId).orElse(null);
         }
+        // mapping may store RuleSet relation
+        try { return m.getRuleSet(); } catch (Throwable t) { return null; }
+    }
 
-        List<RuleDefinition> rules = ruleRepository.findByRuleSet(rs);
-        if (rules == null || rules.isEmpty()) {
-            return ResponseEntity.notFound().build();
+    /**
+     * CBOR is only chosen when the client asks for it explicitly; wildcard Accept headers keep JSON.
+     */
+    private static boolean acceptsCbor(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mt -> mt.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR));
+        } catch (InvalidMediaTypeException ex) {
+            return false;
         }
+    }
 
-        List<Map<String,Object>> defs = rules.stream().map(r -> {
-            Map<String,Object> map = new HashMap<>();
-            map.put("ruleName", r.getRuleName());
-            if (r.getRuleContent() != null) map.put("ruleContent", r.getRuleContent());
-            else if (r.getRuleFile() != null) map.put("ruleContent", Base64.getEncoder().encodeToString(r.getRuleFile()));
-            map.put("active", r.isActive());
-            // map RuleType enum to string expected by DroolsEngine
-            map.put("ruleType", r.getRuleType() == RuleType.DMN ? "DMN" :
-                    r.getRuleType() == RuleType.DECISION_TABLE ? "DECISION_TABLE" : "DRL");
-            return map;
-        }).collect(Collectors.toList());
+    private static Map<String,Object> toChangedArtifact(RuleDefinition r, boolean binary) {
+        Map<String,Object> map = toRuleArtifact(r, binary);
+        map.put("ruleId", r.getId());
+        map.put("contentHash", RuleSetVersionService.hashOf(r));
+        return map;
+    }
 
-        return ResponseEntity.ok(defs);
+    private static Map<String,Object> toRuleArtifact(RuleDefinition r, boolean binary) {
+        Map<String,Object> map = new HashMap<>();
+        map.put("ruleName", r.getRuleName());
+        if (r.getRuleContent() != null) map.put("ruleContent", r.getRuleContent());
+        else if (r.getRuleFile() != null) {
+            // CBOR has a native byte string type, so skip the base64 round trip
+            map.put("ruleContent", binary ? r.getRuleFile() : Base64.getEncoder().encodeToString(r.getRuleFile()));
+        }
+        map.put("active", r.isActive());
+        // map RuleType enum to string expected by DroolsEngine
+        map.put("ruleType", r.getRuleType() == RuleType.DMN ? "DMN" :
+                r.getRuleType() == RuleType.DECISION_TABLE ? "DECISION_TABLE" : "DRL");
+        return map;
     }
 }
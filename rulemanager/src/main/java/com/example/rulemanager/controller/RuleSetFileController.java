@@ -1,10 +1,17 @@
 package com.example.rulemanager.controller;
 
+import com.example.rulemanager.config.ReadOnlyTransactional;
+import com.example.rulemanager.dto.RuleSummary;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
 import com.example.rulemanager.model.RuleDefinition;
 import com.example.rulemanager.model.RuleSet;
 import com.example.rulemanager.model.RuleType;
 import com.example.rulemanager.repository.RuleRepository;
 import com.example.rulemanager.repository.RuleSetRepository;
+import com.example.rulemanager.service.RuleService;
+import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,17 +32,24 @@ public class RuleSetFileController {
 
     private final RuleSetRepository ruleSetRepository;
     private final RuleRepository ruleRepository;
+    private final ApplicationEventPublisher events;
+    private final RuleService ruleService;
 
     public RuleSetFileController(RuleSetRepository ruleSetRepository,
-                                 RuleRepository ruleRepository) {
+                                 RuleRepository ruleRepository,
+                                 ApplicationEventPublisher events,
+                                 RuleService ruleService) {
         this.ruleSetRepository = ruleSetRepository;
         this.ruleRepository = ruleRepository;
+        this.events = events;
+        this.ruleService = ruleService;
     }
 
     /**
      * View all rules (files) under a given RuleSet
      */
     @GetMapping("/{id}/files-ui")
+    @ReadOnlyTransactional
     public String showFiles(@PathVariable("id") Long rulesetId, Model model) {
         Optional<RuleSet> opt = ruleSetRepository.findById(rulesetId);
         if (opt.isEmpty()) {
@@ -44,7 +58,7 @@ public class RuleSetFileController {
         }
 
         RuleSet ruleSet = opt.get();
-        List<RuleDefinition> rules = ruleRepository.findByRuleSet(ruleSet);
+        List<RuleSummary> rules = ruleRepository.findSummariesByRuleSetId(ruleSet.getId());
 
         model.addAttribute("ruleset", ruleSet);
         model.addAttribute("rules", rules);
@@ -63,6 +77,7 @@ public class RuleSetFileController {
     }
 
     @PostMapping("/rulesets/{id}/create-rule-ui")
+    @Transactional
     public String saveCreatedRule(@PathVariable("id") Long rulesetId,
                                   @RequestParam("ruleName") String ruleName,
                                   @RequestParam("ruleType") String ruleType,
@@ -81,6 +96,7 @@ public class RuleSetFileController {
         rd.setRuleSet(opt.get());
 
         ruleRepository.save(rd);
+        publishRuleChange(RuleChangeType.RULE_SAVED, rd);
         return "redirect:/rulesets/" + rulesetId + "/files-ui";
     }
 
@@ -89,6 +105,7 @@ public class RuleSetFileController {
      * Upload a new rule file and link it to an existing RuleSet
      */
     @PostMapping("/{id}/files-ui")
+    @Transactional
     public String uploadFile(@PathVariable("id") Long rulesetId,
                              @RequestParam("file") MultipartFile file,
                              Model model) {
@@ -128,7 +145,9 @@ public class RuleSetFileController {
                 rule.setRuleType(RuleType.DECISION_TABLE);
             }
 
+            ruleService.prepareArtifact(rule);
             ruleRepository.save(rule);
+            publishRuleChange(RuleChangeType.RULE_SAVED, rule);
             return "redirect:/rulesets/" + rulesetId + "/files-ui";
 
         } catch (Exception ex) {
@@ -141,6 +160,7 @@ public class RuleSetFileController {
      * Download rule file (text or binary). Triggers browser download when possible.
      */
     @GetMapping("/{rulesetId}/files/{fileId}/download")
+    @ReadOnlyTransactional
     public ResponseEntity<byte[]> downloadRuleFile(@PathVariable("rulesetId") Long rulesetId,
                                                    @PathVariable("fileId") Long fileId) {
         Optional<RuleDefinition> opt = ruleRepository.findById(fileId);
@@ -201,6 +221,7 @@ public class RuleSetFileController {
      * Save edited content for DRL/DMN/text rule in DB
      */
     @PostMapping("/{rulesetId}/files/{fileId}/edit")
+    @Transactional
     public String saveEditedFile(@PathVariable("rulesetId") Long rulesetId,
                                  @PathVariable("fileId") Long fileId,
                                  @RequestParam(value = "content", required = false) String content,
@@ -221,6 +242,7 @@ public class RuleSetFileController {
         // update content
         rule.setRuleContent(content);
         ruleRepository.save(rule);
+        publishRuleChange(RuleChangeType.RULE_SAVED, rule);
         return "redirect:/rulesets/" + rulesetId + "/files-ui";
     }
 
@@ -228,6 +250,7 @@ public class RuleSetFileController {
      * Replace file content (upload a new file) for both binary and text rules.
      */
     @PostMapping("/{rulesetId}/files/{fileId}/replace")
+    @Transactional
     public String replaceFile(@PathVariable("rulesetId") Long rulesetId,
                               @PathVariable("fileId") Long fileId,
                               @RequestParam("file") MultipartFile file,
@@ -248,19 +271,27 @@ public class RuleSetFileController {
             String filename = file.getOriginalFilename();
             String lower = filename == null ? "" : filename.toLowerCase();
 
+            // prepare on a detached copy: the managed rule must stay untouched if the upload is rejected,
+            // or the transaction would still commit the bad content
+            RuleDefinition replacement = new RuleDefinition();
             if (lower.endsWith(".drl") || lower.endsWith(".dmn") || lower.endsWith(".txt")) {
                 String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-                rule.setRuleContent(content);
-                rule.setRuleFile(null);
-                rule.setRuleType(lower.endsWith(".dmn") ? RuleType.DMN : RuleType.DRL);
+                replacement.setRuleContent(content);
+                replacement.setRuleType(lower.endsWith(".dmn") ? RuleType.DMN : RuleType.DRL);
             } else {
-                rule.setRuleFile(file.getBytes());
-                rule.setRuleContent(null);
-                rule.setRuleType(RuleType.DECISION_TABLE);
+                replacement.setRuleFile(file.getBytes());
+                replacement.setRuleType(RuleType.DECISION_TABLE);
             }
+            ruleService.prepareArtifact(replacement);
 
+            rule.setRuleContent(replacement.getRuleContent());
+            rule.setRuleFile(replacement.getRuleFile());
+            rule.setRuleType(replacement.getRuleType());
+            rule.setGeneratedDrl(replacement.getGeneratedDrl());
+            rule.setGeneratedFromHash(replacement.getGeneratedFromHash());
             rule.setRuleName(filename);
             ruleRepository.save(rule);
+            publishRuleChange(RuleChangeType.RULE_SAVED, rule);
             return "redirect:/rulesets/" + rulesetId + "/files-ui";
         } catch (Exception ex) {
             model.addAttribute("error", "Replace failed: " + ex.getMessage());
@@ -272,9 +303,18 @@ public class RuleSetFileController {
      * Delete a rule from a ruleset (optional)
      */
     @PostMapping("/{rulesetId}/files/{fileId}/delete")
+    @Transactional
     public String deleteRule(@PathVariable("rulesetId") Long rulesetId,
                              @PathVariable("fileId") Long fileId) {
         ruleRepository.deleteById(fileId);
+        Integer version = ruleSetRepository.findById(rulesetId).map(RuleSet::getVersion).orElse(null);
+        events.publishEvent(RuleChangeEvent.rule(RuleChangeType.RULE_DELETED, rulesetId, version, fileId));
         return "redirect:/rulesets/" + rulesetId + "/files-ui";
     }
+
+    private void publishRuleChange(RuleChangeType type, RuleDefinition rule) {
+        RuleSet rs = rule.getRuleSet();
+        events.publishEvent(RuleChangeEvent.rule(type,
+                rs == null ? null : rs.getId(), rs == null ? null : rs.getVersion(), rule.getId()));
+    }
 }
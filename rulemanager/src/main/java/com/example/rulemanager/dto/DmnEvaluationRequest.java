@@ -0,0 +1,33 @@
+package com.example.rulemanager.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Body of POST /api/rulesets/{id}/dmn/evaluate.
+ * Either decisionName or decisionServiceName may be set; with neither, all decisions of the model are evaluated.
+ * namespace/modelName may be omitted when the ruleset contains a single DMN model.
+ */
+public class DmnEvaluationRequest {
+
+    private String namespace;
+    private String modelName;
+    private String decisionName;
+    private String decisionServiceName;
+    private Map<String, Object> context = new HashMap<>();
+
+    public String getNamespace() { return namespace; }
+    public void setNamespace(String namespace) { this.namespace = namespace; }
+
+    public String getModelName() { return modelName; }
+    public void setModelName(String modelName) { this.modelName = modelName; }
+
+    public String getDecisionName() { return decisionName; }
+    public void setDecisionName(String decisionName) { this.decisionName = decisionName; }
+
+    public String getDecisionServiceName() { return decisionServiceName; }
+    public void setDecisionServiceName(String decisionServiceName) { this.decisionServiceName = decisionServiceName; }
+
+    public Map<String, Object> getContext() { return context; }
+    public void setContext(Map<String, Object> context) { this.context = context; }
+}
@@ -0,0 +1,30 @@
+package com.example.rulemanager.dto;
+
+import com.example.rulemanager.model.RuleType;
+
+/**
+ * Rule metadata without the content columns, for listings.
+ * Loaded through a cacheable projection query so the LOBs never reach the second-level cache.
+ */
+public class RuleSummary {
+
+    private final Long id;
+    private final String ruleName;
+    private final RuleType ruleType;
+    private final boolean active;
+    private final String contentHash;
+
+    public RuleSummary(Long id, String ruleName, RuleType ruleType, boolean active, String contentHash) {
+        this.id = id;
+        this.ruleName = ruleName;
+        this.ruleType = ruleType;
+        this.active = active;
+        this.contentHash = contentHash;
+    }
+
+    public Long getId() { return id; }
+    public String getRuleName() { return ruleName; }
+    public RuleType getRuleType() { return ruleType; }
+    public boolean isActive() { return active; }
+    public String getContentHash() { return contentHash; }
+}
@@ -0,0 +1,22 @@
+package com.example.rulemanager.event;
+
+/**
+ * A {@link RuleChangeEvent} that is durable: either committed locally or read back from the
+ * change log written by another node. Caches and subscribers react to this event rather than
+ * to the raw change so every node sees every change exactly once.
+ */
+public class RuleChangeCommittedEvent {
+
+    private final RuleChangeEvent change;
+    private final boolean remote;
+
+    public RuleChangeCommittedEvent(RuleChangeEvent change, boolean remote) {
+        this.change = change;
+        this.remote = remote;
+    }
+
+    public RuleChangeEvent getChange() { return change; }
+
+    /** true when the change was made by another node and picked up from the change log. */
+    public boolean isRemote() { return remote; }
+}
@@ -0,0 +1,57 @@
+package com.example.rulemanager.event;
+
+import java.time.Instant;
+
+/**
+ * In-process notification that a ruleset, one of its rules or an object mapping changed.
+ * Published through Spring's ApplicationEventPublisher from the write paths.
+ */
+public class RuleChangeEvent {
+
+    private final RuleChangeType type;
+    private final Long rulesetId;
+    private final Integer version;   // ruleset version at the time of the change (nullable)
+    private final Long ruleId;       // only for RULE_* events
+    private final String objectType; // only for MAPPING_CHANGED
+    private final String objectKey;  // only for MAPPING_CHANGED
+    private final Instant timestamp;
+
+    private RuleChangeEvent(RuleChangeType type, Long rulesetId, Integer version,
+                            Long ruleId, String objectType, String objectKey, Instant timestamp) {
+        this.type = type;
+        this.rulesetId = rulesetId;
+        this.version = version;
+        this.ruleId = ruleId;
+        this.objectType = objectType;
+        this.objectKey = objectKey;
+        this.timestamp = timestamp;
+    }
+
+    public static RuleChangeEvent ruleset(RuleChangeType type, Long rulesetId, Integer version) {
+        return new RuleChangeEvent(type, rulesetId, version, null, null, null, Instant.now());
+    }
+
+    public static RuleChangeEvent rule(RuleChangeType type, Long rulesetId, Integer version, Long ruleId) {
+        return new RuleChangeEvent(type, rulesetId, version, ruleId, null, null, Instant.now());
+    }
+
+    public static RuleChangeEvent mapping(String objectType, String objectKey, Long rulesetId, Integer version) {
+        return new RuleChangeEvent(RuleChangeType.MAPPING_CHANGED, rulesetId, version, null, objectType, objectKey, Instant.now());
+    }
+
+    /**
+     * Rebuild an event that was recorded elsewhere (e.g. read back from the change-log table).
+     */
+    public static RuleChangeEvent of(RuleChangeType type, Long rulesetId, Integer version, Long ruleId,
+                                     String objectType, String objectKey, Instant timestamp) {
+        return new RuleChangeEvent(type, rulesetId, version, ruleId, objectType, objectKey, timestamp);
+    }
+
+    public RuleChangeType getType() { return type; }
+    public Long getRulesetId() { return rulesetId; }
+    public Integer getVersion() { return version; }
+    public Long getRuleId() { return ruleId; }
+    public String getObjectType() { return objectType; }
+    public String getObjectKey() { return objectKey; }
+    public Instant getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,10 @@
+package com.example.rulemanager.event;
+
+public enum RuleChangeType {
+    RULESET_PUBLISHED,
+    RULESET_UPDATED,
+    RULESET_DELETED,
+    RULE_SAVED,
+    RULE_DELETED,
+    MAPPING_CHANGED
+}
@@ -0,0 +1,78 @@
+package com.example.rulemanager.jfr;
+
+import com.example.rulemanager.model.RuleDefinition;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * Loading of rule artifacts (content, files, generated DRL) from the database.
+ */
+@Name("com.example.rulemanager.ArtifactLoad")
+@Label("Rule Artifact Load")
+@Category({"Rule Manager", "Persistence"})
+@Description("Loading of the rules of a ruleset from the database")
+@StackTrace(false)
+public class ArtifactLoadEvent extends Event {
+
+    @Label("Purpose")
+    @Description("compile or fetch (rules fetch for an object)")
+    public String purpose;
+
+    @Label("Ruleset Id")
+    public long rulesetId;
+
+    @Label("Object Type")
+    public String objectType;
+
+    @Label("Object Key")
+    public String objectKey;
+
+    @Label("Rules")
+    public int rules;
+
+    @Label("Content Size")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Decoded size of the artifacts, text counted as UTF-8; only worth computing when the event is committed.
+     */
+    public static long contentBytes(Collection<RuleDefinition> rules) {
+        long bytes = 0;
+        for (RuleDefinition r : rules) {
+            bytes += utf8Length(r.getRuleContent());
+            if (r.getRuleFile() != null) bytes += r.getRuleFile().length;
+            bytes += utf8Length(r.getGeneratedDrl());
+        }
+        return bytes;
+    }
+
+    /** UTF-8 encoded length, without encoding the string. */
+    static long utf8Length(String text) {
+        if (text == null) return 0;
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1; // unpaired, encoded as '?'
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.rulemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One evaluation of bound facts against a compiled ruleset: session(s), inserts and firing.
+ */
+@Name("com.example.rulemanager.Evaluation")
+@Label("Rule Evaluation")
+@Category({"Rule Manager", "Drools"})
+@Description("Evaluation of facts against a compiled ruleset")
+@StackTrace(false)
+public class EvaluationEvent extends Event {
+
+    @Label("Ruleset Id")
+    public long rulesetId;
+
+    @Label("Version")
+    public int version;
+
+    @Label("Facts")
+    public int facts;
+
+    @Label("Rules Fired")
+    public int rulesFired;
+
+    @Label("Sessions")
+    @Description("Sessions used: 1, or one per fact-type partition that ran")
+    public int sessions;
+}
@@ -0,0 +1,43 @@
+package com.example.rulemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Build of one ruleset into its KieModule/KieBase(s), from loading its rules to the finished KieBase.
+ */
+@Name("com.example.rulemanager.RuleSetCompile")
+@Label("Ruleset Compile")
+@Category({"Rule Manager", "Drools"})
+@Description("Compilation of a ruleset into its KieBase")
+@StackTrace(false)
+public class RuleSetCompileEvent extends Event {
+
+    @Label("Ruleset Id")
+    public long rulesetId;
+
+    @Label("Version")
+    public int version;
+
+    @Label("Resources")
+    public int resourceCount;
+
+    @Label("Partitions")
+    @Description("Fact-type partitions; 0 when built as one KieBase")
+    public int partitions;
+
+    @Label("Parallel Evaluation")
+    public boolean parallelEvaluation;
+
+    @Label("Estimated Size")
+    @DataAmount
+    public long estimatedBytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
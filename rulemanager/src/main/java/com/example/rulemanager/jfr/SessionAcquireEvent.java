@@ -0,0 +1,29 @@
+package com.example.rulemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creation of a KieSession from a cached KieBase.
+ */
+@Name("com.example.rulemanager.SessionAcquire")
+@Label("Session Acquire")
+@Category({"Rule Manager", "Drools"})
+@Description("Creation of a KieSession for an evaluation")
+@StackTrace(false)
+public class SessionAcquireEvent extends Event {
+
+    @Label("Ruleset Id")
+    public long rulesetId;
+
+    @Label("Version")
+    public int version;
+
+    @Label("Partition")
+    @Description("Index of the fact-type partition; -1 for the whole ruleset")
+    public int partition;
+}
@@ -0,0 +1,83 @@
+package com.example.rulemanager.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One audited evaluation outcome. Rows are only batch-inserted by EvaluationAuditLog through JDBC
+ * (identity ids would stop Hibernate from batching); the entity is here for the schema.
+ */
+@Entity
+@Table(name = "EVALUATION_AUDIT",
+        indexes = {
+                @Index(name = "idx_ea_ruleset_at", columnList = "ruleset_id, evaluated_at"),
+                @Index(name = "idx_ea_object", columnList = "object_type, object_key")
+        })
+public class EvaluationAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "evaluated_at", nullable = false)
+    private LocalDateTime evaluatedAt;
+
+    // json, stream, dmn or object-session
+    @Column(nullable = false, length = 32)
+    private String source;
+
+    @Column(name = "ruleset_id")
+    private Long rulesetId;
+
+    @Column(name = "ruleset_version")
+    private Integer rulesetVersion;
+
+    @Column(name = "object_type")
+    private String objectType;
+
+    @Column(name = "object_key")
+    private String objectKey;
+
+    // JSON array of rule (or DMN decision) names in firing order
+    @Lob
+    @Column(name = "fired_rules", columnDefinition = "LONGTEXT")
+    private String firedRules;
+
+    @Column(name = "duration_micros", nullable = false)
+    private long durationMicros;
+
+    private boolean cached;
+
+    public EvaluationAudit() {}
+
+    // --- getters / setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getEvaluatedAt() { return evaluatedAt; }
+    public void setEvaluatedAt(LocalDateTime evaluatedAt) { this.evaluatedAt = evaluatedAt; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public Long getRulesetId() { return rulesetId; }
+    public void setRulesetId(Long rulesetId) { this.rulesetId = rulesetId; }
+
+    public Integer getRulesetVersion() { return rulesetVersion; }
+    public void setRulesetVersion(Integer rulesetVersion) { this.rulesetVersion = rulesetVersion; }
+
+    public String getObjectType() { return objectType; }
+    public void setObjectType(String objectType) { this.objectType = objectType; }
+
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+
+    public String getFiredRules() { return firedRules; }
+    public void setFiredRules(String firedRules) { this.firedRules = firedRules; }
+
+    public long getDurationMicros() { return durationMicros; }
+    public void setDurationMicros(long durationMicros) { this.durationMicros = durationMicros; }
+
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+}
@@ -1,9 +1,13 @@
 package com.example.rulemanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "OBJECT_RULESET_MAPPING")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "objectMapping")
 public class ObjectRulesetMapping {
 
     @Id
@@ -0,0 +1,65 @@
+package com.example.rulemanager.model;
+
+import com.example.rulemanager.model.converter.CompressedTextConverter;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Input facts of a stateful object session that was evicted from memory (idle or over the memory cap)
+ * or held at shutdown. The session is rebuilt from them on the object's next change.
+ */
+@Entity
+@Table(name = "OBJECT_SESSION_STATE",
+        uniqueConstraints = @UniqueConstraint(name = "uk_oss_object", columnNames = {"object_type", "object_key"}))
+public class ObjectSessionState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "object_type", nullable = false)
+    private String objectType;
+
+    @Column(name = "object_key", nullable = false)
+    private String objectKey;
+
+    // ruleset the facts were last evaluated against (informational; the mapping decides on restore)
+    @Column(name = "ruleset_id")
+    private Long rulesetId;
+
+    @Column(name = "ruleset_version")
+    private Integer rulesetVersion;
+
+    // JSON array of the input facts, each with its "@id"
+    @Lob
+    @Column(name = "facts_json", columnDefinition = "LONGTEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    private String factsJson;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ObjectSessionState() {}
+
+    // --- getters / setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getObjectType() { return objectType; }
+    public void setObjectType(String objectType) { this.objectType = objectType; }
+
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+
+    public Long getRulesetId() { return rulesetId; }
+    public void setRulesetId(Long rulesetId) { this.rulesetId = rulesetId; }
+
+    public Integer getRulesetVersion() { return rulesetVersion; }
+    public void setRulesetVersion(Integer rulesetVersion) { this.rulesetVersion = rulesetVersion; }
+
+    public String getFactsJson() { return factsJson; }
+    public void setFactsJson(String factsJson) { this.factsJson = factsJson; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,80 @@
+package com.example.rulemanager.model;
+
+import com.example.rulemanager.event.RuleChangeType;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of ruleset/rule/mapping mutations, written in the same transaction as the
+ * mutation and tailed by every node to invalidate local caches.
+ */
+@Entity
+@Table(name = "RULE_CHANGE_LOG",
+        indexes = @Index(name = "idx_rcl_created_at", columnList = "created_at"))
+public class RuleChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 32)
+    private RuleChangeType changeType;
+
+    @Column(name = "ruleset_id")
+    private Long rulesetId;
+
+    @Column(name = "ruleset_version")
+    private Integer rulesetVersion;
+
+    @Column(name = "rule_id")
+    private Long ruleId;
+
+    @Column(name = "object_type")
+    private String objectType;
+
+    @Column(name = "object_key")
+    private String objectKey;
+
+    // node that performed the change; nodes skip their own entries when tailing
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public RuleChangeLog() {}
+
+    @PrePersist
+    public void onCreate() {
+        if (this.createdAt == null) this.createdAt = LocalDateTime.now();
+    }
+
+    // --- getters / setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public RuleChangeType getChangeType() { return changeType; }
+    public void setChangeType(RuleChangeType changeType) { this.changeType = changeType; }
+
+    public Long getRulesetId() { return rulesetId; }
+    public void setRulesetId(Long rulesetId) { this.rulesetId = rulesetId; }
+
+    public Integer getRulesetVersion() { return rulesetVersion; }
+    public void setRulesetVersion(Integer rulesetVersion) { this.rulesetVersion = rulesetVersion; }
+
+    public Long getRuleId() { return ruleId; }
+    public void setRuleId(Long ruleId) { this.ruleId = ruleId; }
+
+    public String getObjectType() { return objectType; }
+    public void setObjectType(String objectType) { this.objectType = objectType; }
+
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
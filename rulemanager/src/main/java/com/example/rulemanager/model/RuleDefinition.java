@@ -1,5 +1,8 @@
 package com.example.rulemanager.model;
 
+import com.example.rulemanager.model.converter.CompressedBytesConverter;
+import com.example.rulemanager.model.converter.CompressedTextConverter;
+import com.example.rulemanager.util.Hashing;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,15 +20,34 @@ public class RuleDefinition {
     @Enumerated(EnumType.STRING)
     private RuleType ruleType = RuleType.DRL; // DRL, DECISION_TABLE, DMN
 
+    // rule content columns are stored compressed (see RuleContentCodec); legacy plain rows still read fine
     @Lob
     @Column(name = "rule_content", columnDefinition = "LONGTEXT")
+    @Convert(converter = CompressedTextConverter.class)
     private String ruleContent;
 
     @Lob
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] ruleFile; // stored in DB
 
+    // DRL compiled from ruleFile at upload time (decision tables only), so builds skip spreadsheet parsing
+    @Lob
+    @Column(name = "generated_drl", columnDefinition = "LONGTEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    @JsonIgnore
+    private String generatedDrl;
+
+    // content hash of the ruleFile bytes generatedDrl was produced from
+    @Column(name = "generated_from_hash", length = 64)
+    @JsonIgnore
+    private String generatedFromHash;
+
     private boolean active = true;
 
+    // SHA-256 of ruleContent (or ruleFile for binary artifacts), maintained on every write
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     /**
      * Relationship to RuleSet entity.
      * Marked with @JsonIgnore to avoid recursive JSON serialization and lazy-loading issues.
@@ -42,6 +64,25 @@ public class RuleDefinition {
     @Transient
     private MultipartFile uploadedFile;
 
+    @PrePersist
+    @PreUpdate
+    public void refreshContentHash() {
+        this.contentHash = computeContentHash();
+    }
+
+    public String computeContentHash() {
+        return ruleContent != null ? Hashing.sha256(ruleContent) : Hashing.sha256(ruleFile);
+    }
+
+    /**
+     * True when generatedDrl was produced from the current ruleFile bytes.
+     */
+    public boolean hasCurrentGeneratedDrl() {
+        if (generatedDrl == null || generatedFromHash == null || ruleFile == null) return false;
+        // recompute rather than trust contentHash: it is only refreshed at flush time
+        return generatedFromHash.equals(Hashing.sha256(ruleFile));
+    }
+
     // --- getters/setters ---
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -61,6 +102,15 @@ public class RuleDefinition {
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
 
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getGeneratedDrl() { return generatedDrl; }
+    public void setGeneratedDrl(String generatedDrl) { this.generatedDrl = generatedDrl; }
+
+    public String getGeneratedFromHash() { return generatedFromHash; }
+    public void setGeneratedFromHash(String generatedFromHash) { this.generatedFromHash = generatedFromHash; }
+
     public MultipartFile getUploadedFile() { return uploadedFile; }
     public void setUploadedFile(MultipartFile uploadedFile) { this.uploadedFile = uploadedFile; }
 }
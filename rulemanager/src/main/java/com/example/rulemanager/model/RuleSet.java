@@ -2,6 +2,8 @@ package com.example.rulemanager.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +11,8 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "RULE_SET")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ruleset")
 public class RuleSet {
 
     @Id
@@ -27,6 +31,14 @@ public class RuleSet {
 
     private String createdBy;
 
+    // build the KieBase with Drools parallel (multithreaded) evaluation; null/false = sequential
+    @Column(name = "parallel_evaluation")
+    private Boolean parallelEvaluation;
+
+    // results depend only on the input facts, so repeated evaluations may be served from a cache
+    @Column(name = "deterministic")
+    private Boolean deterministic;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -70,6 +82,12 @@ public class RuleSet {
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
 
+    public Boolean getParallelEvaluation() { return parallelEvaluation; }
+    public void setParallelEvaluation(Boolean parallelEvaluation) { this.parallelEvaluation = parallelEvaluation; }
+
+    public Boolean getDeterministic() { return deterministic; }
+    public void setDeterministic(Boolean deterministic) { this.deterministic = deterministic; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -1,5 +1,7 @@
 package com.example.rulemanager.model;
 
+import com.example.rulemanager.model.converter.CompressedBytesConverter;
+import com.example.rulemanager.model.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 
 @Entity
@@ -16,9 +18,11 @@ public class RuleSetFile {
 
     @Lob
     @Column(columnDefinition = "LONGTEXT")
+    @Convert(converter = CompressedTextConverter.class)
     private String content; // for text DRL/DMN
 
     @Lob
+    @Convert(converter = CompressedBytesConverter.class)
     private byte[] contentBytes; // optional for xlsx or binary
 
     private Integer orderIndex = 0;
@@ -0,0 +1,63 @@
+package com.example.rulemanager.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One rule artifact as it was when a ruleset version was published.
+ * Only identity and content hash are kept; content itself stays on RuleDefinition.
+ */
+@Entity
+@Table(name = "RULESET_VERSION_ENTRY",
+        indexes = @Index(name = "idx_rsve_ruleset_version", columnList = "ruleset_id, version"))
+public class RuleSetVersionEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ruleset_id", nullable = false)
+    private Long rulesetId;
+
+    @Column(nullable = false)
+    private Integer version;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    private String ruleName;
+
+    @Enumerated(EnumType.STRING)
+    private RuleType ruleType;
+
+    private boolean active;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    public RuleSetVersionEntry() {}
+
+    // --- getters / setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRulesetId() { return rulesetId; }
+    public void setRulesetId(Long rulesetId) { this.rulesetId = rulesetId; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public Long getRuleId() { return ruleId; }
+    public void setRuleId(Long ruleId) { this.ruleId = ruleId; }
+
+    public String getRuleName() { return ruleName; }
+    public void setRuleName(String ruleName) { this.ruleName = ruleName; }
+
+    public RuleType getRuleType() { return ruleType; }
+    public void setRuleType(RuleType ruleType) { this.ruleType = ruleType; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+}
@@ -0,0 +1,22 @@
+package com.example.rulemanager.model.converter;
+
+import com.example.rulemanager.util.RuleContentCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Compresses binary rule artifacts on write; reads both compressed and legacy raw rows.
+ */
+@Converter
+public class CompressedBytesConverter implements AttributeConverter<byte[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(byte[] attribute) {
+        return RuleContentCodec.encode(attribute);
+    }
+
+    @Override
+    public byte[] convertToEntityAttribute(byte[] dbData) {
+        return RuleContentCodec.decode(dbData);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.rulemanager.model.converter;
+
+import com.example.rulemanager.util.RuleContentCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Compresses large text columns (DRL/DMN source) on write; reads both compressed and legacy plain rows.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return RuleContentCodec.encode(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return RuleContentCodec.decode(dbData);
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.rulemanager.repository;
 
 import com.example.rulemanager.model.ObjectRulesetMapping;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,7 +13,8 @@ import java.util.List;
 @Repository
 public interface ObjectRulesetMappingRepository extends JpaRepository<ObjectRulesetMapping, Long> {
 
-    // exact match — controller expects this
+    // exact match — controller expects this (query cache: resolved on every rules fetch)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     ObjectRulesetMapping findFirstByObjectTypeAndObjectKey(String objectType, String objectKey);
 
     // optional-style
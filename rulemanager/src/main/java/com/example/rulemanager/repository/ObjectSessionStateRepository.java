@@ -0,0 +1,15 @@
+package com.example.rulemanager.repository;
+
+import com.example.rulemanager.model.ObjectSessionState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ObjectSessionStateRepository extends JpaRepository<ObjectSessionState, Long> {
+
+    Optional<ObjectSessionState> findByObjectTypeAndObjectKey(String objectType, String objectKey);
+
+    void deleteByObjectTypeAndObjectKey(String objectType, String objectKey);
+}
@@ -0,0 +1,26 @@
+package com.example.rulemanager.repository;
+
+import com.example.rulemanager.model.RuleChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RuleChangeLogRepository extends JpaRepository<RuleChangeLog, Long> {
+
+    List<RuleChangeLog> findByIdGreaterThanOrderByIdAsc(Long id, Pageable page);
+
+    List<RuleChangeLog> findByIdBetweenOrderByIdAsc(Long from, Long to);
+
+    @Query("select coalesce(max(c.id), 0) from RuleChangeLog c")
+    Long findMaxId();
+
+    @Modifying
+    @Query("delete from RuleChangeLog c where c.createdAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
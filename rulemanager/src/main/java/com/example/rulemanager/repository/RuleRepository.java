@@ -1,8 +1,14 @@
 package com.example.rulemanager.repository;
 
+import com.example.rulemanager.dto.RuleSummary;
 import com.example.rulemanager.model.RuleDefinition;
 import com.example.rulemanager.model.RuleSet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
 public interface RuleRepository extends JpaRepository<RuleDefinition, Long> {
@@ -13,6 +19,20 @@ public interface RuleRepository extends JpaRepository<RuleDefinition, Long> {
     // Fetch rules by RuleSet entity
     List<RuleDefinition> findByRuleSet(RuleSet ruleSet);
 
+    // Fetch rules by ruleset id (no RuleSet entity needed)
+    List<RuleDefinition> findByRuleSetId(Long rulesetId);
+
     // Optional: Fetch active rules within a specific RuleSet
     List<RuleDefinition> findByRuleSetAndActiveTrue(RuleSet ruleSet);
+
+    // Metadata only (no LOB columns), served from the query cache; use for listings
+    @Query("select new com.example.rulemanager.dto.RuleSummary(r.id, r.ruleName, r.ruleType, r.active, r.contentHash) "
+            + "from RuleDefinition r where r.ruleSet.id = :rulesetId order by r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<RuleSummary> findSummariesByRuleSetId(Long rulesetId);
+
+    // Single statement delete of every rule of a ruleset (bulk import with replace)
+    @Modifying
+    @Query("delete from RuleDefinition r where r.ruleSet.id = :rulesetId")
+    int deleteByRuleSetId(Long rulesetId);
 }
@@ -1,12 +1,16 @@
 package com.example.rulemanager.repository;
 
 import com.example.rulemanager.model.RuleSet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RuleSetRepository extends JpaRepository<RuleSet, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<RuleSet> findByName(String name);
 }
@@ -0,0 +1,19 @@
+package com.example.rulemanager.repository;
+
+import com.example.rulemanager.model.RuleSetVersionEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RuleSetVersionEntryRepository extends JpaRepository<RuleSetVersionEntry, Long> {
+
+    List<RuleSetVersionEntry> findByRulesetIdAndVersion(Long rulesetId, Integer version);
+
+    boolean existsByRulesetIdAndVersion(Long rulesetId, Integer version);
+
+    void deleteByRulesetIdAndVersion(Long rulesetId, Integer version);
+
+    void deleteByRulesetId(Long rulesetId);
+}
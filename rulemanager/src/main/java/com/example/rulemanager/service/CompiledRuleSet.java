@@ -0,0 +1,149 @@
+package com.example.rulemanager.service;
+
+import org.kie.api.KieBase;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieRuntimeFactory;
+import org.kie.dmn.api.core.DMNRuntime;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A ruleset compiled into its own KieModule, shared by all evaluations of that ruleset
+ * until the ruleset changes.
+ *
+ * Rulesets split into fact-type partitions evaluate through their partitions; the monolithic KieBase
+ * is then only created if something asks for it.
+ */
+public class CompiledRuleSet {
+
+    private static final long BASE_BYTES = 512 * 1024;
+    private static final long PER_RULE_BYTES = 16 * 1024;
+    private static final long PER_SOURCE_BYTE = 4;
+
+    private final Long rulesetId;
+    private final Integer version;
+    private final ReleaseId releaseId;
+    private final KieContainer container;
+    private final int resourceCount;
+    private final long buildMillis;
+    private final long estimatedBytes;
+    private final boolean parallelEvaluation;
+    private final String sequentialReason;
+    private final List<FactPartition> partitions;
+    private final boolean deterministic;
+    private final Instant builtAt = Instant.now();
+
+    private volatile KieBase kieBase;
+    private volatile DMNRuntime dmnRuntime;
+
+    public CompiledRuleSet(Long rulesetId, Integer version, ReleaseId releaseId, KieContainer container,
+                           KieBase kieBase, int resourceCount, long buildMillis, long estimatedBytes,
+                           boolean parallelEvaluation, String sequentialReason, List<FactPartition> partitions,
+                           boolean deterministic) {
+        this.rulesetId = rulesetId;
+        this.version = version;
+        this.releaseId = releaseId;
+        this.container = container;
+        this.kieBase = kieBase;
+        this.resourceCount = resourceCount;
+        this.buildMillis = buildMillis;
+        this.estimatedBytes = estimatedBytes;
+        this.parallelEvaluation = parallelEvaluation;
+        this.sequentialReason = sequentialReason;
+        this.partitions = partitions;
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * Rough retained-heap estimate of a compiled KieBase, used to weigh cache entries.
+     * Walking the real object graph is too expensive to do per build, so this scales with what drives
+     * the Rete network size: a fixed per-KieBase overhead, a per-rule cost and the source size.
+     */
+    public static long estimateRetainedBytes(KieBase kieBase, long sourceBytes) {
+        long rules = kieBase.getKiePackages().stream().mapToLong(p -> p.getRules().size()).sum();
+        return BASE_BYTES + rules * PER_RULE_BYTES + sourceBytes * PER_SOURCE_BYTE;
+    }
+
+    /**
+     * Estimate for a partitioned ruleset: every partition is a KieBase of its own.
+     */
+    public static long estimateRetainedBytes(List<FactPartition> partitions, long sourceBytes) {
+        long bytes = sourceBytes * PER_SOURCE_BYTE;
+        for (FactPartition partition : partitions) {
+            bytes += estimateRetainedBytes(partition.getKieBase(), 0);
+        }
+        return bytes;
+    }
+
+    /**
+     * The whole ruleset as one KieBase; built on first use for partitioned rulesets.
+     */
+    public KieBase getKieBase() {
+        KieBase base = kieBase;
+        if (base == null) {
+            synchronized (this) {
+                base = kieBase;
+                if (base == null) {
+                    base = container.getKieBase();
+                    kieBase = base;
+                }
+            }
+        }
+        return base;
+    }
+
+    /**
+     * KieBase to bind a fact of the given declared type ("@type", may be null) against: the partition
+     * matching that type, since each partition generates its own class for it.
+     */
+    public KieBase getKieBaseForType(String declaredType) {
+        if (partitions.isEmpty()) return getKieBase();
+        if (declaredType != null) {
+            for (FactPartition partition : partitions) {
+                if (partition.ownsDeclaredType(declaredType)) return partition.getKieBase();
+            }
+        }
+        return partitions.get(0).getKieBase();
+    }
+
+    /**
+     * DMN runtime bound to this KieBase; created on first use and reused afterwards.
+     */
+    public DMNRuntime getDmnRuntime() {
+        DMNRuntime runtime = dmnRuntime;
+        if (runtime == null) {
+            synchronized (this) {
+                runtime = dmnRuntime;
+                if (runtime == null) {
+                    runtime = KieRuntimeFactory.of(getKieBase()).get(DMNRuntime.class);
+                    dmnRuntime = runtime;
+                }
+            }
+        }
+        return runtime;
+    }
+
+    public Long getRulesetId() { return rulesetId; }
+    public Integer getVersion() { return version; }
+    public ReleaseId getReleaseId() { return releaseId; }
+    public KieContainer getContainer() { return container; }
+    public int getResourceCount() { return resourceCount; }
+    public long getBuildMillis() { return buildMillis; }
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public Instant getBuiltAt() { return builtAt; }
+
+    /** True when the KieBase evaluates with Drools parallel evaluation. */
+    public boolean isParallelEvaluation() { return parallelEvaluation; }
+
+    /** Why a ruleset configured for parallel evaluation was built sequential instead; null otherwise. */
+    public String getSequentialReason() { return sequentialReason; }
+
+    /** Fact-type partitions, empty when the ruleset evaluates as one KieBase. */
+    public List<FactPartition> getPartitions() { return partitions; }
+    public boolean isPartitioned() { return !partitions.isEmpty(); }
+
+    /** True when the ruleset is marked deterministic: its results may be memoized per input. */
+    public boolean isDeterministic() { return deterministic; }
+}
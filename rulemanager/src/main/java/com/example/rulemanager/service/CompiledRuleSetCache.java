@@ -0,0 +1,203 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.repository.RuleSetRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.kie.api.KieServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled rulesets keyed by ruleset id, bounded by an estimated memory budget.
+ *
+ * Entries are built on first use and dropped whenever a committed change (local or from another
+ * node via the change log) touches the ruleset, so the next evaluation recompiles the new version.
+ * Each entry weighs its estimated retained size; once the total passes the budget Caffeine evicts
+ * by frequency and recency (W-TinyLFU). Pinned rulesets weigh nothing and are never evicted for size.
+ */
+@Service
+public class CompiledRuleSetCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledRuleSetCache.class);
+
+    private final RuleSetRepository ruleSetRepository;
+    private final RuleService ruleService;
+    private final AsyncCache<Long, CompiledRuleSet> entries;
+    private final Set<Long> pinned = ConcurrentHashMap.newKeySet();
+    private final long maxWeightBytes;
+    private final MeterRegistry meterRegistry;
+
+    public CompiledRuleSetCache(RuleSetRepository ruleSetRepository, RuleService ruleService,
+                                MeterRegistry meterRegistry,
+                                @Value("${rulemanager.compiled-cache.max-weight-mb:256}") long maxWeightMb,
+                                @Value("${rulemanager.compiled-cache.pinned-rulesets:}") List<Long> pinnedRulesets) {
+        this.ruleSetRepository = ruleSetRepository;
+        this.ruleService = ruleService;
+        this.meterRegistry = meterRegistry;
+        this.maxWeightBytes = maxWeightMb * 1024 * 1024;
+        this.pinned.addAll(pinnedRulesets);
+
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, CompiledRuleSet c) -> pinned.contains(id) ? 0 : (int) Math.min(Integer.MAX_VALUE, c.getEstimatedBytes()))
+                .removalListener((Long id, CompiledRuleSet c, RemovalCause cause) -> {
+                    // REPLACED is only used to re-weigh an entry after (un)pinning; the value stays live
+                    if (c != null && cause != RemovalCause.REPLACED) {
+                        if (cause.wasEvicted()) {
+                            log.info("evicted compiled ruleset {} v{} (~{} KiB, {})",
+                                    id, c.getVersion(), c.getEstimatedBytes() / 1024, cause);
+                        }
+                        release(c);
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * The gauges read this cache, so they are registered once it is fully constructed.
+     */
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "compiledRulesets");
+        Gauge.builder("rulemanager.compiled_cache.weight", this, CompiledRuleSetCache::weightedBytes)
+                .baseUnit("bytes").description("Estimated retained size of cached compiled rulesets")
+                .register(meterRegistry);
+        Gauge.builder("rulemanager.compiled_cache.max_weight", this, c -> c.maxWeightBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("rulemanager.compiled_cache.pinned", pinned, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Return the compiled ruleset, compiling it once if needed. Concurrent callers for the same
+     * ruleset wait on the same build instead of compiling in parallel.
+     *
+     * @throws NoSuchElementException if the ruleset does not exist
+     */
+    public CompiledRuleSet get(Long rulesetId) {
+        // getIfPresent records hit/miss statistics; putIfAbsent settles races between missing callers
+        CompletableFuture<CompiledRuleSet> existing = entries.getIfPresent(rulesetId);
+        if (existing == null) {
+            CompletableFuture<CompiledRuleSet> mine = new CompletableFuture<>();
+            existing = entries.asMap().putIfAbsent(rulesetId, mine);
+            if (existing == null) {
+                return compileInto(rulesetId, mine);
+            }
+        }
+        return join(existing);
+    }
+
+    private CompiledRuleSet compileInto(Long rulesetId, CompletableFuture<CompiledRuleSet> mine) {
+        try {
+            RuleSet rs = ruleSetRepository.findById(rulesetId)
+                    .orElseThrow(() -> new NoSuchElementException("ruleset not found: " + rulesetId));
+            CompiledRuleSet compiled = ruleService.compile(rs);
+            log.info("compiled ruleset {} v{} ({} resources, ~{} KiB) in {} ms", rulesetId, compiled.getVersion(),
+                    compiled.getResourceCount(), compiled.getEstimatedBytes() / 1024, compiled.getBuildMillis());
+            mine.complete(compiled);
+            return compiled;
+        } catch (RuntimeException ex) {
+            // failed futures are dropped by the cache; the next call retries
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public void invalidate(Long rulesetId) {
+        entries.synchronous().invalidate(rulesetId);
+    }
+
+    public void pin(Long rulesetId) {
+        if (pinned.add(rulesetId)) reweigh(rulesetId);
+    }
+
+    public void unpin(Long rulesetId) {
+        if (pinned.remove(rulesetId)) reweigh(rulesetId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxWeightBytes", maxWeightBytes);
+        stats.put("weightBytes", weightedBytes());
+        stats.put("evictions", entries.synchronous().stats().evictionCount());
+        stats.put("hitRate", entries.synchronous().stats().hitRate());
+        List<Map<String, Object>> list = new ArrayList<>();
+        entries.synchronous().asMap().forEach((id, c) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("rulesetId", id);
+            m.put("version", c.getVersion());
+            m.put("estimatedBytes", c.getEstimatedBytes());
+            m.put("resourceCount", c.getResourceCount());
+            m.put("buildMillis", c.getBuildMillis());
+            m.put("parallelEvaluation", c.isParallelEvaluation());
+            if (c.getSequentialReason() != null) m.put("sequentialReason", c.getSequentialReason());
+            if (c.isPartitioned()) {
+                m.put("partitionRuleCounts", c.getPartitions().stream().map(FactPartition::getRuleCount).toList());
+            }
+            m.put("builtAt", c.getBuiltAt());
+            m.put("pinned", pinned.contains(id));
+            list.add(m);
+        });
+        stats.put("entries", list);
+        stats.put("pinned", pinned);
+        return stats;
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        if (committed.getChange().getType() == RuleChangeType.MAPPING_CHANGED) return;
+        Long rulesetId = committed.getChange().getRulesetId();
+        if (rulesetId != null) {
+            invalidate(rulesetId);
+        }
+    }
+
+    private void reweigh(Long rulesetId) {
+        // writing the same value back makes Caffeine run the weigher again
+        entries.asMap().computeIfPresent(rulesetId, (id, f) -> f);
+    }
+
+    private long weightedBytes() {
+        return entries.synchronous().policy().eviction()
+                .map(e -> e.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Free the KieModule held by the KieRepository. Sessions already created from the KieBase keep
+     * working; new callers get a fresh compile.
+     */
+    private static void release(CompiledRuleSet compiled) {
+        KieServices.Factory.get().getRepository().removeKieModule(compiled.getReleaseId());
+    }
+
+    private static CompiledRuleSet join(CompletableFuture<CompiledRuleSet> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw ex;
+        }
+    }
+}
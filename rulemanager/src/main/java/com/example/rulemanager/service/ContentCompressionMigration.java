@@ -0,0 +1,95 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.util.RuleContentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites rule content rows stored before at-rest compression existed.
+ *
+ * Runs once in the background after startup, in small batches, straight through JDBC so the raw
+ * column values can be inspected. Each update is guarded by the value that was read, so a row
+ * changed concurrently through JPA is left alone (it is already written in the new format).
+ */
+@Service
+public class ContentCompressionMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentCompressionMigration.class);
+
+    private record Column(String table, String name, boolean binary) {}
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("rule_definition", "rule_content", false),
+            new Column("rule_definition", "rule_file", true),
+            new Column("rule_definition", "generated_drl", false),
+            new Column("ruleset_file", "content", false),
+            new Column("ruleset_file", "content_bytes", true));
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ContentCompressionMigration(JdbcTemplate jdbc,
+                                       @Value("${rulemanager.compression.migrate-on-startup:true}") boolean enabled,
+                                       @Value("${rulemanager.compression.migration-batch-size:100}") int batchSize) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        if (!enabled) return;
+        Thread t = new Thread(this::migrateAll, "content-compression-migration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void migrateAll() {
+        for (Column column : COLUMNS) {
+            try {
+                int migrated = migrate(column);
+                if (migrated > 0) {
+                    log.info("compressed {} legacy values in {}.{}", migrated, column.table(), column.name());
+                }
+            } catch (RuntimeException ex) {
+                log.warn("content compression migration of {}.{} failed: {}", column.table(), column.name(), ex.getMessage());
+            }
+        }
+    }
+
+    private int migrate(Column column) {
+        // legacy = not starting with the codec header (LEFT counts bytes on BLOBs, characters on text)
+        String legacy = column.name() + " IS NOT NULL AND LEFT(" + column.name() + ", 4) <> ?";
+        Object magic = column.binary() ? RuleContentCodec.binaryMagic() : RuleContentCodec.textMagic();
+
+        String select = "SELECT id, " + column.name() + " AS v FROM " + column.table()
+                + " WHERE id > ? AND " + legacy + " ORDER BY id LIMIT " + batchSize;
+        String update = "UPDATE " + column.table() + " SET " + column.name() + " = ? WHERE id = ? AND "
+                + column.name() + " = ?";
+
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbc.queryForList(select, lastId, magic);
+            if (rows.isEmpty()) return migrated;
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                Object raw = row.get("v");
+                Object encoded = column.binary()
+                        ? RuleContentCodec.encode((byte[]) raw)
+                        : RuleContentCodec.encode((String) raw);
+                migrated += jdbc.update(update, encoded, id, raw);
+                lastId = id;
+            }
+        }
+    }
+}
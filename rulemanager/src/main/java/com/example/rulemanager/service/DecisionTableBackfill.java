@@ -0,0 +1,92 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.util.Hashing;
+import com.example.rulemanager.util.RuleContentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles decision tables stored before upload-time conversion to DRL, so their builds stop parsing
+ * spreadsheets too.
+ *
+ * Runs once in the background after startup, in small batches, straight through JDBC like
+ * {@link ContentCompressionMigration}. An update only lands while the row still has no generated DRL,
+ * so a table replaced concurrently through JPA keeps what that write produced. Tables that do not
+ * compile are left as they are and logged; their builds fail the same way as before.
+ */
+@Service
+public class DecisionTableBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionTableBackfill.class);
+
+    private static final String SELECT = "SELECT id, rule_file FROM rule_definition WHERE id > ? "
+            + "AND rule_type = 'DECISION_TABLE' AND rule_file IS NOT NULL AND generated_drl IS NULL ORDER BY id LIMIT ";
+    private static final String UPDATE = "UPDATE rule_definition SET generated_drl = ?, generated_from_hash = ? "
+            + "WHERE id = ? AND generated_drl IS NULL";
+
+    private final JdbcTemplate jdbc;
+    private final DecisionTableCompiler compiler;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public DecisionTableBackfill(JdbcTemplate jdbc, DecisionTableCompiler compiler,
+                                 @Value("${rulemanager.decision-tables.backfill-on-startup:true}") boolean enabled,
+                                 @Value("${rulemanager.decision-tables.backfill-batch-size:20}") int batchSize) {
+        this.jdbc = jdbc;
+        this.compiler = compiler;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        if (!enabled) return;
+        Thread t = new Thread(this::backfillAll, "decision-table-backfill");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Returns the number of decision tables given their DRL.
+     */
+    public int backfillAll() {
+        int compiled = 0;
+        int failed = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> rows = jdbc.queryForList(SELECT + batchSize, lastId);
+                if (rows.isEmpty()) break;
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    lastId = id;
+                    // legacy rows may not be compressed yet; decode passes those through
+                    byte[] spreadsheet = RuleContentCodec.decode((byte[]) row.get("rule_file"));
+                    String drl;
+                    try {
+                        drl = compiler.toDrl(spreadsheet);
+                    } catch (IllegalArgumentException ex) {
+                        failed++;
+                        log.warn("decision table rule {} does not compile, left as is: {}", id, ex.getMessage());
+                        continue;
+                    }
+                    compiled += jdbc.update(UPDATE, RuleContentCodec.encode(drl), Hashing.sha256(spreadsheet), id);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("decision table backfill stopped after rule {}: {}", lastId, ex.getMessage());
+        }
+        if (compiled > 0 || failed > 0) {
+            log.info("compiled {} stored decision tables to DRL ({} failed)", compiled, failed);
+        }
+        return compiled;
+    }
+}
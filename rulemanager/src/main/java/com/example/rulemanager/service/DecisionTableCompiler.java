@@ -0,0 +1,33 @@
+package com.example.rulemanager.service;
+
+import org.drools.decisiontable.InputType;
+import org.drools.decisiontable.SpreadsheetCompiler;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Turns XLS/XLSX decision tables into DRL source so spreadsheets are parsed once, at upload time,
+ * instead of on every KieBase build.
+ */
+@Component
+public class DecisionTableCompiler {
+
+    /**
+     * @throws IllegalArgumentException if the spreadsheet is not a valid decision table
+     */
+    public String toDrl(byte[] spreadsheet) {
+        try {
+            // InputType.XLS goes through POI's WorkbookFactory, which accepts both .xls and .xlsx
+            String drl = new SpreadsheetCompiler().compile(new ByteArrayInputStream(spreadsheet), InputType.XLS);
+            if (drl == null || drl.isBlank()) {
+                throw new IllegalArgumentException("decision table produced no rules");
+            }
+            return drl;
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("invalid decision table: " + ex.getMessage(), ex);
+        }
+    }
+}
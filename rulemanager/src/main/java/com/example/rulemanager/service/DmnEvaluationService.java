@@ -0,0 +1,122 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.dto.DmnEvaluationRequest;
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.api.core.DMNDecisionResult;
+import org.kie.dmn.api.core.DMNMessage;
+import org.kie.dmn.api.core.DMNModel;
+import org.kie.dmn.api.core.DMNResult;
+import org.kie.dmn.api.core.DMNRuntime;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates DMN decisions against the cached DMNRuntime of a compiled ruleset.
+ */
+@Service
+public class DmnEvaluationService {
+
+    private final CompiledRuleSetCache cache;
+    private final EvaluationAuditLog audit;
+
+    public DmnEvaluationService(CompiledRuleSetCache cache, EvaluationAuditLog audit) {
+        this.cache = cache;
+        this.audit = audit;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the model or decision cannot be resolved
+     */
+    public Map<String, Object> evaluate(Long rulesetId, DmnEvaluationRequest request) {
+        CompiledRuleSet compiled = cache.get(rulesetId);
+        DMNRuntime runtime = compiled.getDmnRuntime();
+        DMNModel model = resolveModel(runtime, request);
+
+        DMNContext ctx = runtime.newContext();
+        if (request.getContext() != null) {
+            request.getContext().forEach(ctx::set);
+        }
+
+        long start = System.nanoTime();
+        DMNResult result;
+        if (request.getDecisionServiceName() != null) {
+            if (model.getDecisionServices().stream().noneMatch(ds -> ds.getName().equals(request.getDecisionServiceName()))) {
+                throw new IllegalArgumentException("decision service not found: " + request.getDecisionServiceName());
+            }
+            result = runtime.evaluateDecisionService(model, ctx, request.getDecisionServiceName());
+        } else if (request.getDecisionName() != null) {
+            if (model.getDecisionByName(request.getDecisionName()) == null) {
+                throw new IllegalArgumentException("decision not found: " + request.getDecisionName());
+            }
+            result = runtime.evaluateByName(model, ctx, request.getDecisionName());
+        } else {
+            result = runtime.evaluateAll(model, ctx);
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        // decisions that evaluated successfully stand in for fired rules
+        audit.record("dmn", compiled, null, null, result.getDecisionResults().stream()
+                .filter(dr -> dr.getEvaluationStatus() == DMNDecisionResult.DecisionEvaluationStatus.SUCCEEDED)
+                .map(DMNDecisionResult::getDecisionName)
+                .toList(), micros, false);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("namespace", model.getNamespace());
+        payload.put("modelName", model.getName());
+        payload.put("hasErrors", result.hasErrors());
+        payload.put("decisionResults", result.getDecisionResults().stream()
+                .map(DmnEvaluationService::toMap)
+                .collect(Collectors.toList()));
+        payload.put("messages", messages(result.getMessages()));
+        return payload;
+    }
+
+    private static DMNModel resolveModel(DMNRuntime runtime, DmnEvaluationRequest request) {
+        List<DMNModel> models = runtime.getModels();
+        if (request.getNamespace() != null && request.getModelName() != null) {
+            DMNModel model = runtime.getModel(request.getNamespace(), request.getModelName());
+            if (model == null) {
+                throw new IllegalArgumentException("DMN model not found: " + request.getNamespace() + "#" + request.getModelName());
+            }
+            return model;
+        }
+
+        List<DMNModel> candidates = new ArrayList<>();
+        for (DMNModel m : models) {
+            if (request.getModelName() != null && !request.getModelName().equals(m.getName())) continue;
+            if (request.getNamespace() != null && !request.getNamespace().equals(m.getNamespace())) continue;
+            candidates.add(m);
+        }
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("no matching DMN model in ruleset");
+        }
+        if (candidates.size() > 1) {
+            throw new IllegalArgumentException("several DMN models match; specify namespace and modelName");
+        }
+        return candidates.get(0);
+    }
+
+    private static Map<String, Object> toMap(DMNDecisionResult dr) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("decisionId", dr.getDecisionId());
+        m.put("decisionName", dr.getDecisionName());
+        m.put("status", dr.getEvaluationStatus().name());
+        m.put("result", dr.getResult());
+        m.put("messages", messages(dr.getMessages()));
+        return m;
+    }
+
+    private static List<Map<String, Object>> messages(List<DMNMessage> messages) {
+        return messages.stream().map(msg -> {
+            Map<String, Object> m = new HashMap<>();
+            m.put("severity", msg.getLevel().name());
+            m.put("text", msg.getText());
+            return m;
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.rulemanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit of evaluation outcomes, written off the request path.
+ *
+ * Callers only put an entry on a lock-free queue; a single writer thread drains it in batches (when a
+ * batch is full or every flush interval) to NDJSON segment files under the audit directory, rolled by
+ * size and never rewritten, and optionally batch-inserts the same batch into EVALUATION_AUDIT. At most
+ * {@code capacity} entries wait in memory: with DROP a full queue drops (and counts) the entry, with
+ * BLOCK the caller waits for the writer, so no decision goes unrecorded.
+ */
+@Service
+public class EvaluationAuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EvaluationAuditLog.class);
+
+    private static final DateTimeFormatter SEGMENT_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private static final String INSERT = "INSERT INTO evaluation_audit (evaluated_at, source, ruleset_id, "
+            + "ruleset_version, object_type, object_key, fired_rules, duration_micros, cached) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    /**
+     * One evaluation outcome; firedRules holds rule names, or decision names for DMN.
+     */
+    public record Entry(Instant at, String source, Long rulesetId, Integer version, String objectType,
+                        String objectKey, List<String> firedRules, long durationMicros, boolean cached) {}
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final boolean database;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    // one permit per free queue slot; the writer releases them after writing
+    private final Semaphore slots;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter writeFailed;
+    private final Counter databaseFailed;
+    // only while the writer runs, so nothing blocks on a queue nobody drains
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    // current segment, only touched by the writer thread
+    private FileChannel segment;
+    private long segmentSize;
+    private int segmentSequence;
+
+    public EvaluationAuditLog(ObjectMapper objectMapper, JdbcTemplate jdbc, MeterRegistry meterRegistry,
+                              @Value("${rulemanager.audit.enabled:true}") boolean enabled,
+                              @Value("${rulemanager.audit.overflow-policy:DROP}") OverflowPolicy policy,
+                              @Value("${rulemanager.audit.capacity:100000}") int capacity,
+                              @Value("${rulemanager.audit.batch-size:1000}") int batchSize,
+                              @Value("${rulemanager.audit.flush-interval-ms:200}") long flushIntervalMs,
+                              @Value("${rulemanager.audit.directory:audit}") String directory,
+                              @Value("${rulemanager.audit.segment-mb:64}") long segmentMb,
+                              @Value("${rulemanager.audit.fsync:false}") boolean fsync,
+                              @Value("${rulemanager.audit.database.enabled:false}") boolean database) {
+        this.objectMapper = objectMapper;
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, Math.min(batchSize, capacity));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentMb * 1024 * 1024;
+        this.fsync = fsync;
+        this.database = database;
+        this.slots = new Semaphore(capacity);
+
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.writeFailed = counter(meterRegistry, "write_failed");
+        this.databaseFailed = counter(meterRegistry, "db_failed");
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("rulemanager.audit.queued", this, EvaluationAuditLog::queued)
+                .description("Audit entries waiting for the writer").register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("rulemanager.audit.entries")
+                .description("Audited evaluation outcomes by what happened to them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(directory);
+        running = true;
+        Thread t = new Thread(this::drain, "evaluation-audit-writer");
+        t.setDaemon(true);
+        writer = t;
+        t.start();
+        log.info("auditing evaluations to {} ({} policy, capacity {}{})", directory.toAbsolutePath(), policy,
+                capacity, database ? ", also to EVALUATION_AUDIT" : "");
+    }
+
+    /**
+     * Audit one evaluation. {@code firedRules} is kept by reference until written, so callers must
+     * not change it afterwards.
+     */
+    public void record(String source, Long rulesetId, Integer version, String objectType, String objectKey,
+                       List<String> firedRules, long durationMicros, boolean cached) {
+        if (!running) {
+            if (enabled) dropped.increment();
+            return;
+        }
+        if (policy == OverflowPolicy.BLOCK) {
+            slots.acquireUninterruptibly();
+        } else if (!slots.tryAcquire()) {
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Entry(Instant.now(), source, rulesetId, version, objectType, objectKey,
+                firedRules, durationMicros, cached));
+        // wake the writer once per batch; a missed wake-up only waits for the flush interval
+        if (queued() == batchSize) LockSupport.unpark(writer);
+    }
+
+    public void record(String source, CompiledRuleSet compiled, String objectType, String objectKey,
+                       List<String> firedRules, long durationMicros, boolean cached) {
+        record(source, compiled.getRulesetId(), compiled.getVersion(), objectType, objectKey,
+                firedRules, durationMicros, cached);
+    }
+
+    private int queued() {
+        return capacity - slots.availablePermits();
+    }
+
+    // ============================================
+    // Writer
+    // ============================================
+
+    /**
+     * Wait for a full batch or the flush interval, then write everything queued in batches.
+     * After stop() it writes what is left and closes the segment.
+     */
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        for (;;) {
+            if (running && queued() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            boolean stopping = !running;
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                batch.add(entry);
+                if (batch.size() == batchSize) flush(batch);
+            }
+            if (!batch.isEmpty()) flush(batch);
+            if (stopping) break;
+        }
+        closeSegment();
+    }
+
+    private void flush(List<Entry> batch) {
+        try {
+            writeSegment(batch);
+            written.increment(batch.size());
+        } catch (IOException | RuntimeException ex) {
+            writeFailed.increment(batch.size());
+            log.error("could not write {} audit entries to {}: {}", batch.size(), directory, ex.getMessage());
+            // start a fresh segment next time rather than appending after a partial write
+            closeSegment();
+        }
+        if (database) {
+            try {
+                insert(batch);
+            } catch (RuntimeException ex) {
+                databaseFailed.increment(batch.size());
+                log.error("could not insert {} audit entries: {}", batch.size(), ex.getMessage());
+            }
+        }
+        slots.release(batch.size());
+        batch.clear();
+    }
+
+    private void writeSegment(List<Entry> batch) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(batch.size() * 256);
+        for (Entry entry : batch) {
+            buffer.write(objectMapper.writeValueAsBytes(entry));
+            buffer.write('\n');
+        }
+        if (segment == null || segmentSize + buffer.size() > segmentBytes) {
+            rollSegment();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            segment.write(bytes);
+        }
+        if (fsync) segment.force(false);
+        segmentSize += buffer.size();
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        Path file = directory.resolve("audit-" + SEGMENT_TIME.format(Instant.now())
+                + "-" + (segmentSequence++) + ".ndjson");
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException ex) {
+            log.warn("could not close audit segment: {}", ex.getMessage());
+        }
+        segment = null;
+    }
+
+    private void insert(List<Entry> batch) {
+        jdbc.batchUpdate(INSERT, batch, batch.size(), (ps, e) -> {
+            ps.setTimestamp(1, Timestamp.from(e.at()));
+            ps.setString(2, e.source());
+            ps.setObject(3, e.rulesetId());
+            ps.setObject(4, e.version());
+            ps.setString(5, e.objectType());
+            ps.setString(6, e.objectKey());
+            ps.setString(7, json(e.firedRules()));
+            ps.setLong(8, e.durationMicros());
+            ps.setBoolean(9, e.cached());
+        });
+    }
+
+    private String json(List<String> names) {
+        try {
+            return objectMapper.writeValueAsString(names);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Stop taking entries and wait for the writer to flush what is queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread t = writer;
+        if (t == null) return;
+        running = false;
+        LockSupport.unpark(t);
+        t.join(TimeUnit.SECONDS.toMillis(10));
+        // callers blocked on a full queue would otherwise wait forever
+        slots.release(capacity);
+    }
+}
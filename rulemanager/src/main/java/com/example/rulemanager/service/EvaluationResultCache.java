@@ -0,0 +1,119 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.util.Hashing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Memoized evaluation results of rulesets marked deterministic.
+ *
+ * The outcome of a deterministic ruleset depends only on its input, so results are keyed by the
+ * compiled build (its ReleaseId carries ruleset, version and build number) and a SHA-256 of the
+ * canonical input JSON (object keys sorted). A rebuilt ruleset never sees results of an older build;
+ * entries of a changed ruleset are also dropped as soon as the change is committed. Bounded by entry
+ * count and time-to-live.
+ */
+@Service
+public class EvaluationResultCache {
+
+    /**
+     * Rules fired and the resulting facts. Shared between callers, so treat the facts as read-only.
+     */
+    public record Result(List<String> firedRules, List<JsonNode> facts) {}
+
+    private record Key(Long rulesetId, String build, String inputHash) {}
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Result> results;
+    private final boolean enabled;
+
+    public EvaluationResultCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${rulemanager.evaluation.result-cache.max-entries:10000}") long maxEntries,
+                                 @Value("${rulemanager.evaluation.result-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.enabled = maxEntries > 0;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "evaluationResults");
+    }
+
+    /** Whether evaluations of this build are memoized. */
+    public boolean appliesTo(CompiledRuleSet compiled) {
+        return enabled && compiled.isDeterministic();
+    }
+
+    /**
+     * Stable hash of the input: equal JSON yields the same key whatever the order of object properties.
+     */
+    public String hash(JsonNode input) {
+        try {
+            return Hashing.sha256(objectMapper.writeValueAsBytes(canonical(input)));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("cannot serialize input: " + ex.getMessage(), ex);
+        }
+    }
+
+    public Result get(CompiledRuleSet compiled, String inputHash) {
+        return results.getIfPresent(key(compiled, inputHash));
+    }
+
+    /**
+     * Concurrent misses on the same input may both evaluate; the last one stored wins, with an equal result.
+     */
+    public void put(CompiledRuleSet compiled, String inputHash, Result result) {
+        results.put(key(compiled, inputHash), result);
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        if (committed.getChange().getType() == RuleChangeType.MAPPING_CHANGED) return;
+        Long rulesetId = committed.getChange().getRulesetId();
+        if (rulesetId != null) {
+            results.asMap().keySet().removeIf(k -> rulesetId.equals(k.rulesetId()));
+        }
+    }
+
+    private static Key key(CompiledRuleSet compiled, String inputHash) {
+        return new Key(compiled.getRulesetId(), compiled.getReleaseId().toString(), inputHash);
+    }
+
+    private JsonNode canonical(JsonNode node) {
+        if (node instanceof ObjectNode obj) {
+            List<String> names = new ArrayList<>(obj.size());
+            Iterator<String> it = obj.fieldNames();
+            it.forEachRemaining(names::add);
+            names.sort(null);
+            ObjectNode sorted = objectMapper.createObjectNode();
+            for (String name : names) {
+                sorted.set(name, canonical(obj.get(name)));
+            }
+            return sorted;
+        }
+        if (node instanceof ArrayNode array) {
+            ArrayNode copy = objectMapper.createArrayNode();
+            array.forEach(element -> copy.add(canonical(element)));
+            return copy;
+        }
+        return node;
+    }
+}
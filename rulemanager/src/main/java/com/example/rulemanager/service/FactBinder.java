@@ -0,0 +1,77 @@
+package com.example.rulemanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.FactType;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binds JSON objects to facts and back.
+ *
+ * An object carrying an "@type" property is bound to the fact type declared under that name in the
+ * ruleset (DRL {@code declare}); anything else becomes a {@code Map<String, Object>} fact.
+ */
+@Component
+public class FactBinder {
+
+    public static final String TYPE_PROPERTY = "@type";
+
+    private final ObjectMapper objectMapper;
+
+    public FactBinder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown declared types or values that do not fit them
+     */
+    public Object bind(JsonNode node, KieBase kieBase) {
+        if (!(node instanceof ObjectNode obj)) {
+            throw new IllegalArgumentException("facts must be JSON objects");
+        }
+        JsonNode type = obj.get(TYPE_PROPERTY);
+        if (type == null || type.isNull()) {
+            return objectMapper.convertValue(obj, LinkedHashMap.class);
+        }
+
+        FactType factType = resolve(kieBase, type.asText());
+        ObjectNode value = obj.deepCopy();
+        value.remove(TYPE_PROPERTY);
+        try {
+            return objectMapper.treeToValue(value, factType.getFactClass());
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            throw new IllegalArgumentException("cannot bind fact of type " + type.asText() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * JSON view of a (possibly mutated) fact; declared types get their "@type" back.
+     */
+    public JsonNode unbind(Object fact) {
+        JsonNode node = objectMapper.valueToTree(fact);
+        if (!(fact instanceof Map) && node instanceof ObjectNode obj) {
+            ObjectNode typed = objectMapper.createObjectNode();
+            typed.put(TYPE_PROPERTY, fact.getClass().getName());
+            typed.setAll(obj);
+            return typed;
+        }
+        return node;
+    }
+
+    private static FactType resolve(KieBase kieBase, String qualifiedName) {
+        int dot = qualifiedName.lastIndexOf('.');
+        FactType factType = dot > 0
+                ? kieBase.getFactType(qualifiedName.substring(0, dot), qualifiedName.substring(dot + 1))
+                : null;
+        if (factType == null) {
+            throw new IllegalArgumentException("unknown fact type: " + qualifiedName);
+        }
+        return factType;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.jfr.EvaluationEvent;
+import com.example.rulemanager.jfr.SessionAcquireEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.api.KieBase;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates JSON facts against the cached compiled form of a ruleset.
+ */
+@Service
+public class FactEvaluationService {
+
+    private final CompiledRuleSetCache cache;
+    private final EvaluationResultCache results;
+    private final ShadowEvaluationService shadows;
+    private final EvaluationAuditLog audit;
+    private final FactBinder binder;
+    private final ObjectMapper objectMapper;
+    private final int maxRuleFirings;
+
+    public FactEvaluationService(CompiledRuleSetCache cache, EvaluationResultCache results,
+                                 ShadowEvaluationService shadows, EvaluationAuditLog audit,
+                                 FactBinder binder, ObjectMapper objectMapper,
+                                 @Value("${rulemanager.evaluation.max-rule-firings:10000}") int maxRuleFirings) {
+        this.cache = cache;
+        this.results = results;
+        this.shadows = shadows;
+        this.audit = audit;
+        this.binder = binder;
+        this.objectMapper = objectMapper;
+        this.maxRuleFirings = maxRuleFirings;
+    }
+
+    /**
+     * Parse facts from a JSON body (a single object or an array of objects) with a streaming parser,
+     * so only one fact's tree is materialised at a time before it is bound, then evaluate them together
+     * in one session.
+     *
+     * Deterministic rulesets read the whole body first to key the result cache; a repeated input is
+     * answered from the cache ("cached": true) without touching the engine. So do evaluations sampled
+     * for a shadow ruleset, which is then replayed on the input in the background, whether the live
+     * outcome came from the engine or from the cache.
+     *
+     * Every outcome is audited, with the business object it was evaluated for when the caller names one.
+     */
+    public Map<String, Object> evaluateJson(Long rulesetId, String objectType, String objectKey,
+                                            InputStream body) throws IOException {
+        CompiledRuleSet compiled = cache.get(rulesetId);
+        ShadowEvaluationService.Shadow shadow = shadows.sample(rulesetId);
+        boolean memoized = results.appliesTo(compiled);
+
+        if (memoized || shadow != null) {
+            JsonNode input = objectMapper.readTree(body);
+            String hash = null;
+            if (memoized) {
+                long start = System.nanoTime();
+                hash = results.hash(input);
+                EvaluationResultCache.Result cached = results.get(compiled, hash);
+                if (cached != null) {
+                    long micros = (System.nanoTime() - start) / 1_000;
+                    if (shadow != null) {
+                        shadows.replay(shadow, input, new Evaluated(cached, micros), true, draft -> evaluate(draft, input));
+                    }
+                    audit.record("json", compiled, objectType, objectKey, cached.firedRules(), micros, true);
+                    return payload(compiled, cached, micros, true);
+                }
+            }
+            Evaluated evaluated = evaluate(compiled, input);
+            if (memoized) results.put(compiled, hash, evaluated.result());
+            if (shadow != null) shadows.replay(shadow, input, evaluated, false, draft -> evaluate(draft, input));
+            audit.record("json", compiled, objectType, objectKey, evaluated.result().firedRules(), evaluated.micros(), false);
+            return payload(compiled, evaluated.result(), evaluated.micros(), false);
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            Evaluated evaluated = evaluate(compiled, parser);
+            audit.record("json", compiled, objectType, objectKey, evaluated.result().firedRules(), evaluated.micros(), false);
+            return payload(compiled, evaluated.result(), evaluated.micros(), false);
+        }
+    }
+
+    /**
+     * Outcome of one evaluation and its engine time (session run only, not parsing or binding).
+     */
+    record Evaluated(EvaluationResultCache.Result result, long micros) {}
+
+    private Evaluated evaluate(CompiledRuleSet compiled, JsonNode input) {
+        try (JsonParser parser = objectMapper.treeAsTokens(input)) {
+            return evaluate(compiled, parser);
+        } catch (IOException ex) {
+            // a tree is already parsed; reading it back cannot fail on I/O
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Evaluated evaluate(CompiledRuleSet compiled, JsonParser parser) throws IOException {
+        List<Object> facts = new ArrayList<>();
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_ARRAY) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                facts.add(bind(compiled, objectMapper.readTree(parser)));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("facts must be JSON objects");
+            }
+        } else if (first == JsonToken.START_OBJECT) {
+            facts.add(bind(compiled, objectMapper.readTree(parser)));
+        } else {
+            throw new IllegalArgumentException("expected a JSON object or array of objects");
+        }
+
+        long start = System.nanoTime();
+        List<String> fired = run(compiled, facts);
+        long micros = (System.nanoTime() - start) / 1_000;
+        return new Evaluated(new EvaluationResultCache.Result(fired, unbind(facts)), micros);
+    }
+
+    private Map<String, Object> payload(CompiledRuleSet compiled, EvaluationResultCache.Result result,
+                                        long micros, boolean cached) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("rulesetId", compiled.getRulesetId());
+        payload.put("version", compiled.getVersion());
+        payload.put("firedRules", result.firedRules());
+        payload.put("facts", result.facts());
+        payload.put("durationMicros", micros);
+        if (cached) payload.put("cached", true);
+        return payload;
+    }
+
+    /**
+     * Evaluate a single JSON record on its own session and return its result line:
+     * { "firedRules": [...], "fact": {...} }. Binding problems and failures inside the engine are
+     * reported as { "error": "..." } so one bad record does not abort a bulk run.
+     */
+    public ObjectNode evaluateRecord(CompiledRuleSet compiled, JsonNode record) {
+        ObjectNode result = objectMapper.createObjectNode();
+        try {
+            long start = System.nanoTime();
+            EvaluationResultCache.Result outcome = null;
+            String hash = null;
+            if (results.appliesTo(compiled)) {
+                hash = results.hash(record);
+                outcome = results.get(compiled, hash);
+            }
+            Evaluated evaluated;
+            boolean cached = outcome != null;
+            if (cached) {
+                evaluated = new Evaluated(outcome, (System.nanoTime() - start) / 1_000);
+            } else {
+                evaluated = evaluateRecordFact(compiled, record);
+                outcome = evaluated.result();
+                if (hash != null) results.put(compiled, hash, outcome);
+            }
+            audit.record("stream", compiled, null, null, outcome.firedRules(), evaluated.micros(), cached);
+            ShadowEvaluationService.Shadow shadow = shadows.sample(compiled.getRulesetId());
+            if (shadow != null) {
+                shadows.replay(shadow, record, evaluated, cached, draft -> evaluateRecordFact(draft, record));
+            }
+            ArrayNode names = result.putArray("firedRules");
+            outcome.firedRules().forEach(names::add);
+            result.set("fact", outcome.facts().get(0));
+        } catch (RuntimeException ex) {
+            result.removeAll();
+            result.put("error", ex.getMessage() != null ? ex.getMessage() : ex.toString());
+        }
+        return result;
+    }
+
+    private Evaluated evaluateRecordFact(CompiledRuleSet compiled, JsonNode record) {
+        List<Object> facts = List.of(bind(compiled, record));
+        long start = System.nanoTime();
+        List<String> fired = run(compiled, facts);
+        long micros = (System.nanoTime() - start) / 1_000;
+        return new Evaluated(new EvaluationResultCache.Result(fired, unbind(facts)), micros);
+    }
+
+    private List<JsonNode> unbind(List<Object> facts) {
+        List<JsonNode> out = new ArrayList<>(facts.size());
+        for (Object fact : facts) {
+            out.add(binder.unbind(fact));
+        }
+        return out;
+    }
+
+    private Object bind(CompiledRuleSet compiled, JsonNode node) {
+        String type = node.path(FactBinder.TYPE_PROPERTY).textValue();
+        return binder.bind(node, compiled.getKieBaseForType(type));
+    }
+
+    /**
+     * Insert the facts into a fresh session, fire, and return the names of the rules that fired
+     * in firing order. Facts are mutated in place. With parallel evaluation, partitions fire on
+     * their own threads, so the order across partitions is not deterministic.
+     *
+     * A ruleset split into fact-type partitions gets one session per partition that matches any of
+     * the facts (or has rules that fire without facts); the others are skipped. No rule can see
+     * facts of another partition, so outcomes are the same as one session, with firings grouped
+     * by partition.
+     */
+    public List<String> run(CompiledRuleSet compiled, List<Object> facts) {
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        List<String> fired;
+        int sessions = 0;
+        if (!compiled.isPartitioned()) {
+            fired = compiled.isParallelEvaluation()
+                    ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
+            fire(compiled, -1, compiled.getKieBase(), facts, fired);
+            sessions = 1;
+        } else {
+            List<FactPartition> partitions = compiled.getPartitions();
+            List<List<Object>> routed = new ArrayList<>(partitions.size());
+            partitions.forEach(p -> routed.add(new ArrayList<>()));
+            for (Object fact : facts) {
+                for (int i = 0; i < partitions.size(); i++) {
+                    if (partitions.get(i).accepts(fact)) {
+                        routed.get(i).add(fact);
+                        break;
+                    }
+                }
+            }
+
+            fired = new ArrayList<>();
+            for (int i = 0; i < partitions.size() && fired.size() < maxRuleFirings; i++) {
+                if (!routed.get(i).isEmpty() || partitions.get(i).isAlwaysRun()) {
+                    fire(compiled, i, partitions.get(i).getKieBase(), routed.get(i), fired);
+                    sessions++;
+                }
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.rulesetId = compiled.getRulesetId();
+            event.version = compiled.getVersion() == null ? 0 : compiled.getVersion();
+            event.facts = facts.size();
+            event.rulesFired = fired.size();
+            event.sessions = sessions;
+            event.commit();
+        }
+        return fired;
+    }
+
+    /**
+     * The firing limit is shared by all sessions of one evaluation.
+     */
+    private void fire(CompiledRuleSet compiled, int partition, KieBase kieBase, List<Object> facts, List<String> fired) {
+        SessionAcquireEvent acquire = new SessionAcquireEvent();
+        acquire.begin();
+        KieSession session = kieBase.newKieSession();
+        acquire.end();
+        if (acquire.shouldCommit()) {
+            acquire.rulesetId = compiled.getRulesetId();
+            acquire.version = compiled.getVersion() == null ? 0 : compiled.getVersion();
+            acquire.partition = partition;
+            acquire.commit();
+        }
+        try {
+            session.addEventListener(new DefaultAgendaEventListener() {
+                @Override
+                public void afterMatchFired(AfterMatchFiredEvent event) {
+                    fired.add(event.getMatch().getRule().getName());
+                }
+            });
+            for (Object fact : facts) {
+                session.insert(fact);
+            }
+            session.fireAllRules(maxRuleFirings - fired.size());
+        } finally {
+            session.dispose();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.rulemanager.service;
+
+import org.kie.api.KieBase;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One independently compiled group of rules of a partitioned ruleset (see {@link RulePartitioner}).
+ *
+ * No rule of another partition can match a fact routed here, so each partition runs in its own session
+ * holding only its own facts and Rete network.
+ */
+public class FactPartition {
+
+    private final KieBase kieBase;
+    private final Set<String> declaredTypes;
+    private final List<Class<?>> javaTypes;
+    private final boolean alwaysRun;
+    private final int ruleCount;
+
+    public FactPartition(KieBase kieBase, Set<String> declaredTypes, List<Class<?>> javaTypes,
+                         boolean alwaysRun, int ruleCount) {
+        this.kieBase = kieBase;
+        this.declaredTypes = declaredTypes;
+        this.javaTypes = javaTypes;
+        this.alwaysRun = alwaysRun;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * True when a rule of this partition can match the fact. Declared types are compared by name:
+     * every partition has its own class for them, and facts are bound to the owning partition's.
+     */
+    public boolean accepts(Object fact) {
+        if (declaredTypes.contains(fact.getClass().getName())) return true;
+        for (Class<?> type : javaTypes) {
+            if (type.isInstance(fact)) return true;
+        }
+        return false;
+    }
+
+    public boolean ownsDeclaredType(String qualifiedName) {
+        return declaredTypes.contains(qualifiedName);
+    }
+
+    public KieBase getKieBase() { return kieBase; }
+    public int getRuleCount() { return ruleCount; }
+
+    /** True when some rule can fire without any fact (only not/forall/accumulate/eval conditions). */
+    public boolean isAlwaysRun() { return alwaysRun; }
+}
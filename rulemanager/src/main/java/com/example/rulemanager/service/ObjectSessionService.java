@@ -0,0 +1,665 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.jfr.EvaluationEvent;
+import com.example.rulemanager.jfr.SessionAcquireEvent;
+import com.example.rulemanager.model.ObjectRulesetMapping;
+import com.example.rulemanager.model.ObjectSessionState;
+import com.example.rulemanager.repository.ObjectRulesetMappingRepository;
+import com.example.rulemanager.repository.ObjectSessionStateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Long-lived stateful sessions per business object ({@code objectType}, {@code objectKey}), for objects
+ * that change a few fields at a time over a long period (e.g. a LOAN_APPLICATION).
+ *
+ * Each object keeps one KieSession of its mapped ruleset. Its facts carry an "@id"; a change merges the
+ * given fields onto the fact's input and {@code update()}s it, so only rules matching the changed fact
+ * are re-evaluated instead of re-running everything in a fresh session. The session remembers the
+ * caller's inputs (not the rule-mutated state): a rebuilt session re-inserts them and fires, which gives
+ * the same outcome as if every change had been evaluated in one full run. Facts derived by rules
+ * should therefore be inserted logically.
+ *
+ * Sessions are held on the node that serves the object, bounded by an estimated memory budget and an
+ * idle time. Evicted sessions (and all sessions at shutdown) persist their inputs to OBJECT_SESSION_STATE
+ * and are rebuilt from them on the next change. A session whose ruleset was rebuilt since (new version,
+ * edited rules) or whose mapping changed is rebound to the new build on its next change.
+ */
+@Service
+public class ObjectSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectSessionService.class);
+
+    public static final String ID_PROPERTY = "@id";
+
+    // working memory, agenda and node memories of an empty session
+    private static final long SESSION_OVERHEAD_BYTES = 64 * 1024;
+    // bound fact plus its alpha/beta memory entries, per character of input JSON
+    private static final int BYTES_PER_INPUT_CHAR = 8;
+
+    private record Key(String objectType, String objectKey) {}
+
+    private record Input(ObjectNode fact, int chars) {}
+
+    private record Change(String id, ObjectNode input, Object fact) {}
+
+    private final ObjectRulesetMappingRepository mappingRepository;
+    private final ObjectSessionStateRepository stateRepository;
+    private final CompiledRuleSetCache cache;
+    private final EvaluationAuditLog audit;
+    private final FactBinder binder;
+    private final ObjectMapper objectMapper;
+    private final int maxRuleFirings;
+    private final boolean persistOnChange;
+    private final long maxWeightBytes;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Key, ObjectSession> sessions;
+
+    public ObjectSessionService(ObjectRulesetMappingRepository mappingRepository,
+                                ObjectSessionStateRepository stateRepository,
+                                CompiledRuleSetCache cache, EvaluationAuditLog audit,
+                                FactBinder binder, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${rulemanager.evaluation.max-rule-firings:10000}") int maxRuleFirings,
+                                @Value("${rulemanager.object-sessions.max-weight-mb:64}") long maxWeightMb,
+                                @Value("${rulemanager.object-sessions.idle-minutes:30}") long idleMinutes,
+                                @Value("${rulemanager.object-sessions.persist-on-change:false}") boolean persistOnChange) {
+        this.mappingRepository = mappingRepository;
+        this.stateRepository = stateRepository;
+        this.cache = cache;
+        this.audit = audit;
+        this.binder = binder;
+        this.objectMapper = objectMapper;
+        this.maxRuleFirings = maxRuleFirings;
+        this.persistOnChange = persistOnChange;
+        this.maxWeightBytes = maxWeightMb * 1024 * 1024;
+        this.meterRegistry = meterRegistry;
+
+        this.sessions = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Key k, ObjectSession s) -> (int) Math.min(Integer.MAX_VALUE, s.estimatedBytes))
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                // expire idle sessions on time rather than on the next cache access
+                .scheduler(Scheduler.systemScheduler())
+                // runs inside the eviction, so the next open() of the key waits until the inputs are saved
+                .evictionListener((Key k, ObjectSession s, RemovalCause cause) -> {
+                    if (s != null) release(s, true);
+                })
+                .removalListener((Key k, ObjectSession s, RemovalCause cause) -> {
+                    // REPLACED is only used to re-weigh a session after a change; the value stays live
+                    if (s != null && !cause.wasEvicted() && cause != RemovalCause.REPLACED) {
+                        release(s, false);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "objectSessions");
+        Gauge.builder("rulemanager.object_sessions.weight", this, ObjectSessionService::weightedBytes)
+                .baseUnit("bytes").description("Estimated retained size of stateful object sessions")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Changes
+    // ============================================
+
+    /**
+     * Apply changed facts (one object or an array of objects, each with an "@id") to the object's session
+     * and fire. A known id merges the given fields onto that fact and updates it; a new id inserts a fact.
+     * Returns the rules fired by this change, the current state of the changed facts, and "rebuilt" when the
+     * session had to be restored from its persisted inputs or rebound to a new ruleset build first (the
+     * rules fired by that rebuild are included).
+     *
+     * @throws NoSuchElementException   if no ruleset is mapped to the object
+     * @throws IllegalArgumentException for facts without "@id" or that cannot be bound
+     */
+    public Map<String, Object> apply(String objectType, String objectKey, JsonNode body) {
+        List<ObjectNode> changes = changes(body);
+        Key key = new Key(objectType, objectKey);
+        for (;;) {
+            ObjectSession s = sessions.get(key, this::open);
+            Map<String, Object> payload;
+            try {
+                synchronized (s) {
+                    if (s.closed) continue;
+                    long start = System.nanoTime();
+                    refresh(s);
+
+                    // bind everything before touching the session, so a bad fact leaves it unchanged
+                    List<Change> bound = new ArrayList<>(changes.size());
+                    for (ObjectNode change : changes) {
+                        String id = change.get(ID_PROPERTY).asText();
+                        ObjectNode input = change.deepCopy();
+                        input.remove(ID_PROPERTY);
+                        Input current = s.inputs.get(id);
+                        if (current != null) {
+                            JsonNode type = input.get(FactBinder.TYPE_PROPERTY);
+                            if (type != null && !type.equals(current.fact().get(FactBinder.TYPE_PROPERTY))) {
+                                throw new IllegalArgumentException("fact " + id + " cannot change its " + FactBinder.TYPE_PROPERTY);
+                            }
+                            ObjectNode merged = current.fact().deepCopy();
+                            merged.setAll(input);
+                            input = merged;
+                        }
+                        bound.add(new Change(id, input, bind(s.compiled, input)));
+                    }
+
+                    for (Change change : bound) {
+                        FactHandle handle = s.handles.get(change.id());
+                        // a rule may have deleted the fact; its next change inserts it again
+                        if (handle != null && s.session.getObject(handle) != null) {
+                            s.session.update(handle, change.fact());
+                        } else {
+                            s.handles.put(change.id(), s.session.insert(change.fact()));
+                        }
+                        s.putInput(change.id(), change.input());
+                    }
+                    fire(s);
+                    payload = payload(s, bound.stream().map(Change::id).toList(), start);
+                    changed(s);
+                }
+            } finally {
+                // a session closed by a failed rebind leaves the cache here: the eviction listener holds the
+                // key's entry while it waits for the session's lock, so it must not be removed under that lock
+                if (s.closed) sessions.asMap().remove(key, s);
+            }
+            reweigh(key);
+            return payload;
+        }
+    }
+
+    /**
+     * Delete one fact from the object's session and fire (rules with {@code not} may now match).
+     *
+     * @throws NoSuchElementException if the object has no such fact or no ruleset is mapped to it
+     */
+    public Map<String, Object> deleteFact(String objectType, String objectKey, String factId) {
+        Key key = new Key(objectType, objectKey);
+        for (;;) {
+            ObjectSession s = sessions.get(key, this::open);
+            Map<String, Object> payload;
+            try {
+                synchronized (s) {
+                    if (s.closed) continue;
+                    long start = System.nanoTime();
+                    refresh(s);
+                    if (!s.inputs.containsKey(factId)) {
+                        throw new NoSuchElementException("object " + objectType + "/" + objectKey + " has no fact " + factId);
+                    }
+                    FactHandle handle = s.handles.remove(factId);
+                    if (handle != null && s.session.getObject(handle) != null) {
+                        s.session.delete(handle);
+                    }
+                    s.removeInput(factId);
+                    fire(s);
+                    payload = payload(s, List.of(), start);
+                    changed(s);
+                }
+            } finally {
+                // see apply()
+                if (s.closed) sessions.asMap().remove(key, s);
+            }
+            reweigh(key);
+            return payload;
+        }
+    }
+
+    /**
+     * Current state of the object's session: its facts (with "@id") and the facts rules derived from them.
+     * An object whose session is not in memory reports its persisted inputs instead ("inMemory": false).
+     *
+     * @throws NoSuchElementException if the object has neither
+     */
+    public Map<String, Object> describe(String objectType, String objectKey) {
+        Key key = new Key(objectType, objectKey);
+        ObjectSession s = sessions.policy().getIfPresentQuietly(key);
+        if (s != null) {
+            synchronized (s) {
+                if (!s.closed) return s.describe();
+            }
+        }
+        ObjectSessionState state = stateRepository.findByObjectTypeAndObjectKey(objectType, objectKey)
+                .orElseThrow(() -> new NoSuchElementException("object " + objectType + "/" + objectKey + " has no session"));
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("objectType", objectType);
+        m.put("objectKey", objectKey);
+        m.put("rulesetId", state.getRulesetId());
+        m.put("version", state.getRulesetVersion());
+        m.put("inMemory", false);
+        m.put("facts", readInputs(state.getFactsJson()));
+        m.put("persistedAt", state.getUpdatedAt());
+        return m;
+    }
+
+    /**
+     * Drop the object's session and its persisted inputs. Returns false if it had neither.
+     */
+    @Transactional
+    public boolean discard(String objectType, String objectKey) {
+        Key key = new Key(objectType, objectKey);
+        boolean inMemory = sessions.asMap().remove(key) != null;
+        boolean persisted = stateRepository.findByObjectTypeAndObjectKey(objectType, objectKey).isPresent();
+        if (persisted) stateRepository.deleteByObjectTypeAndObjectKey(objectType, objectKey);
+        return inMemory || persisted;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.estimatedSize());
+        stats.put("maxWeightBytes", maxWeightBytes);
+        stats.put("weightBytes", weightedBytes());
+        stats.put("evictions", sessions.stats().evictionCount());
+        stats.put("hitRate", sessions.stats().hitRate());
+        return stats;
+    }
+
+    // ============================================
+    // Rebuild / rebind
+    // ============================================
+
+    /**
+     * New in-memory session of an object: resolve its ruleset and rebuild from persisted inputs, if any.
+     * Runs inside the cache's compute for the key, so concurrent first changes of an object open it once.
+     */
+    private ObjectSession open(Key key) {
+        Long rulesetId = resolveRulesetId(key);
+        CompiledRuleSet compiled = cache.get(rulesetId);
+        ObjectSession s = new ObjectSession(key);
+        stateRepository.findByObjectTypeAndObjectKey(key.objectType(), key.objectKey()).ifPresent(state -> {
+            for (JsonNode fact : readInputs(state.getFactsJson())) {
+                ObjectNode input = ((ObjectNode) fact).deepCopy();
+                input.remove(ID_PROPERTY);
+                s.putInput(fact.get(ID_PROPERTY).asText(), input);
+            }
+        });
+        rebind(s, rulesetId, compiled);
+        if (!s.inputs.isEmpty()) s.rebuilt = "restored";
+        s.estimatedBytes = s.weight();
+        return s;
+    }
+
+    /**
+     * Rebind the session when its mapping changed or its ruleset was rebuilt since it was created.
+     * A rebind that fails (e.g. a declared type the inputs use was removed) persists the inputs and
+     * closes the session; the caller drops it, so the next change retries against whatever the ruleset is then.
+     */
+    private void refresh(ObjectSession s) {
+        Long rulesetId = s.remap ? resolveRulesetId(s.key) : s.rulesetId;
+        CompiledRuleSet current = cache.get(rulesetId);
+        if (current == s.compiled) return;
+        String reason = rulesetId.equals(s.rulesetId) ? "rebound" : "remapped";
+        try {
+            rebind(s, rulesetId, current);
+        } catch (RuntimeException ex) {
+            persist(s);
+            s.close();
+            throw ex;
+        }
+        s.remap = false;
+        s.rebuilt = reason;
+        log.info("{} session of {}/{} to ruleset {} v{} ({} facts)", reason, s.key.objectType(), s.key.objectKey(),
+                rulesetId, current.getVersion(), s.inputs.size());
+    }
+
+    /**
+     * Replace the KieSession with a fresh one of {@code compiled} holding all inputs, and fire.
+     */
+    private void rebind(ObjectSession s, Long rulesetId, CompiledRuleSet compiled) {
+        List<Object> facts = new ArrayList<>(s.inputs.size());
+        for (Input input : s.inputs.values()) {
+            facts.add(bind(compiled, input.fact()));
+        }
+        if (s.session != null) s.session.dispose();
+        s.session = null;
+        s.handles.clear();
+        s.rulesetId = rulesetId;
+        s.compiled = compiled;
+        s.session = newSession(s);
+        int i = 0;
+        for (String id : s.inputs.keySet()) {
+            s.handles.put(id, s.session.insert(facts.get(i++)));
+        }
+        fire(s);
+    }
+
+    private KieSession newSession(ObjectSession s) {
+        SessionAcquireEvent acquire = new SessionAcquireEvent();
+        acquire.begin();
+        KieSession session = s.compiled.getKieBase().newKieSession();
+        acquire.end();
+        if (acquire.shouldCommit()) {
+            acquire.rulesetId = s.rulesetId;
+            acquire.version = s.compiled.getVersion() == null ? 0 : s.compiled.getVersion();
+            acquire.partition = -1;
+            acquire.commit();
+        }
+        session.addEventListener(new DefaultAgendaEventListener() {
+            @Override
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                s.fired.add(event.getMatch().getRule().getName());
+            }
+        });
+        return session;
+    }
+
+    private void fire(ObjectSession s) {
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        int before = s.fired.size();
+        s.session.fireAllRules(maxRuleFirings);
+        event.end();
+        if (event.shouldCommit()) {
+            event.rulesetId = s.rulesetId;
+            event.version = s.compiled.getVersion() == null ? 0 : s.compiled.getVersion();
+            event.facts = s.handles.size();
+            event.rulesFired = s.fired.size() - before;
+            event.sessions = 1;
+            event.commit();
+        }
+    }
+
+    // ============================================
+    // Eviction / persistence
+    // ============================================
+
+    /**
+     * Close an evicted or removed session; evicted ones (and those of a deleted ruleset) persist their inputs
+     * first. Evictions call this before the entry is gone and removals on Caffeine's executor; either way it
+     * takes the session's lock to wait out a change in progress.
+     */
+    private void release(ObjectSession s, boolean evicted) {
+        synchronized (s) {
+            if (s.closed) return;
+            if (evicted || s.persistOnRelease) {
+                try {
+                    persist(s);
+                } catch (RuntimeException ex) {
+                    log.error("could not persist evicted session of {}/{} ({} facts lost): {}",
+                            s.key.objectType(), s.key.objectKey(), s.inputs.size(), ex.getMessage());
+                }
+            }
+            s.close();
+        }
+    }
+
+    private void persist(ObjectSession s) {
+        ObjectSessionState state = stateRepository
+                .findByObjectTypeAndObjectKey(s.key.objectType(), s.key.objectKey())
+                .orElseGet(ObjectSessionState::new);
+        state.setObjectType(s.key.objectType());
+        state.setObjectKey(s.key.objectKey());
+        state.setRulesetId(s.rulesetId);
+        state.setRulesetVersion(s.compiled.getVersion());
+        ArrayNode facts = objectMapper.createArrayNode();
+        s.inputs.forEach((id, input) -> facts.add(withId(id, input.fact())));
+        try {
+            state.setFactsJson(objectMapper.writeValueAsString(facts));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("cannot serialize session facts: " + ex.getMessage(), ex);
+        }
+        state.setUpdatedAt(LocalDateTime.now());
+        stateRepository.save(state);
+    }
+
+    @PreDestroy
+    public void persistAll() {
+        int count = 0;
+        for (ObjectSession s : sessions.asMap().values()) {
+            synchronized (s) {
+                if (s.closed) continue;
+                try {
+                    persist(s);
+                    count++;
+                } catch (RuntimeException ex) {
+                    log.error("could not persist session of {}/{}: {}", s.key.objectType(), s.key.objectKey(), ex.getMessage());
+                }
+                s.close();
+            }
+        }
+        sessions.invalidateAll();
+        if (count > 0) log.info("persisted {} object sessions", count);
+    }
+
+    /**
+     * A changed mapping rebinds the object's session on its next change; so does a rebuilt ruleset, found by
+     * comparing builds then. Sessions of a deleted ruleset are persisted and dropped.
+     */
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        RuleChangeEvent change = committed.getChange();
+        switch (change.getType()) {
+            case MAPPING_CHANGED -> {
+                ObjectSession s = sessions.policy().getIfPresentQuietly(new Key(change.getObjectType(), change.getObjectKey()));
+                if (s != null) {
+                    synchronized (s) {
+                        s.remap = true;
+                    }
+                }
+            }
+            case RULESET_DELETED -> sessions.asMap().values().removeIf(s -> {
+                if (!change.getRulesetId().equals(s.rulesetId)) return false;
+                // persisted by the removal listener: this runs after commit, where a write would not commit
+                s.persistOnRelease = true;
+                return true;
+            });
+            default -> { }
+        }
+    }
+
+    // ============================================
+    // Helpers
+    // ============================================
+
+    private Long resolveRulesetId(Key key) {
+        ObjectRulesetMapping m = mappingRepository.findFirstByObjectTypeAndObjectKey(key.objectType(), key.objectKey());
+        if (m != null && m.getRulesetId() != null) return m.getRulesetId();
+        if (m != null && m.getRuleSet() != null) return m.getRuleSet().getId();
+        throw new NoSuchElementException("no ruleset mapped to " + key.objectType() + "/" + key.objectKey());
+    }
+
+    private List<ObjectNode> changes(JsonNode body) {
+        List<ObjectNode> changes = new ArrayList<>();
+        if (body instanceof ArrayNode array) {
+            array.forEach(element -> changes.add(change(element)));
+        } else {
+            changes.add(change(body));
+        }
+        return changes;
+    }
+
+    private static ObjectNode change(JsonNode node) {
+        if (!(node instanceof ObjectNode obj)) {
+            throw new IllegalArgumentException("facts must be JSON objects");
+        }
+        JsonNode id = obj.get(ID_PROPERTY);
+        if (id == null || !id.isValueNode() || id.asText().isEmpty()) {
+            throw new IllegalArgumentException("every fact needs an " + ID_PROPERTY);
+        }
+        return obj;
+    }
+
+    private Object bind(CompiledRuleSet compiled, ObjectNode input) {
+        // one session holds every fact type, so bind against the whole ruleset even when it is partitioned
+        return binder.bind(input, compiled.getKieBase());
+    }
+
+    private ObjectNode withId(String id, JsonNode fact) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put(ID_PROPERTY, id);
+        if (fact instanceof ObjectNode obj) node.setAll(obj);
+        return node;
+    }
+
+    private List<JsonNode> readInputs(String factsJson) {
+        try {
+            List<JsonNode> facts = new ArrayList<>();
+            objectMapper.readTree(factsJson).forEach(facts::add);
+            return facts;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("corrupt persisted session facts: " + ex.getMessage(), ex);
+        }
+    }
+
+    private Map<String, Object> payload(ObjectSession s, List<String> changedIds, long startNanos) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("objectType", s.key.objectType());
+        payload.put("objectKey", s.key.objectKey());
+        payload.put("rulesetId", s.rulesetId);
+        payload.put("version", s.compiled.getVersion());
+        if (s.rebuilt != null) payload.put("rebuilt", s.rebuilt);
+        List<String> fired = new ArrayList<>(s.fired);
+        payload.put("firedRules", fired);
+        List<JsonNode> facts = new ArrayList<>(changedIds.size());
+        for (String id : changedIds) {
+            Object fact = s.session.getObject(s.handles.get(id));
+            if (fact != null) facts.add(withId(id, binder.unbind(fact)));
+        }
+        payload.put("facts", facts);
+        payload.put("factCount", s.handles.size());
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        payload.put("durationMicros", micros);
+        audit.record("object-session", s.compiled, s.key.objectType(), s.key.objectKey(), fired, micros, false);
+        return payload;
+    }
+
+    private void changed(ObjectSession s) {
+        s.fired.clear();
+        s.rebuilt = null;
+        s.changes++;
+        s.changedAt = Instant.now();
+        s.estimatedBytes = s.weight();
+        if (persistOnChange) persist(s);
+    }
+
+    private void reweigh(Key key) {
+        // writing the same value back makes Caffeine run the weigher again
+        sessions.asMap().computeIfPresent(key, (k, s) -> s);
+    }
+
+    private long weightedBytes() {
+        return sessions.policy().eviction()
+                .map(e -> e.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * One object's session and its inputs. Guarded by its own monitor.
+     */
+    private final class ObjectSession {
+
+        private final Key key;
+        private final Instant createdAt = Instant.now();
+        // input JSON per fact id, without the "@id"; insertion order is kept for rebuilds
+        private final Map<String, Input> inputs = new LinkedHashMap<>();
+        private final Map<String, FactHandle> handles = new HashMap<>();
+        // rules fired since the last reply, including those of a rebuild
+        private final List<String> fired = new ArrayList<>();
+        private Long rulesetId;
+        private CompiledRuleSet compiled;
+        private KieSession session;
+        private long inputChars;
+        private long changes;
+        private Instant changedAt;
+        private String rebuilt;
+        private boolean remap;
+        private volatile boolean persistOnRelease;
+        private volatile boolean closed;
+        private volatile long estimatedBytes = SESSION_OVERHEAD_BYTES;
+
+        private ObjectSession(Key key) {
+            this.key = key;
+        }
+
+        private void putInput(String id, ObjectNode fact) {
+            Input input = new Input(fact, fact.toString().length());
+            Input old = inputs.put(id, input);
+            inputChars += input.chars() - (old == null ? 0 : old.chars());
+        }
+
+        private void removeInput(String id) {
+            Input old = inputs.remove(id);
+            if (old != null) inputChars -= old.chars();
+        }
+
+        private long weight() {
+            return SESSION_OVERHEAD_BYTES + inputChars * BYTES_PER_INPUT_CHAR;
+        }
+
+        private Map<String, Object> describe() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("objectType", key.objectType());
+            m.put("objectKey", key.objectKey());
+            m.put("rulesetId", rulesetId);
+            m.put("version", compiled.getVersion());
+            m.put("inMemory", true);
+
+            List<JsonNode> facts = new ArrayList<>(handles.size());
+            Set<Object> identified = Collections.newSetFromMap(new IdentityHashMap<>());
+            handles.forEach((id, handle) -> {
+                Object fact = session.getObject(handle);
+                if (fact != null) {
+                    identified.add(fact);
+                    facts.add(withId(id, binder.unbind(fact)));
+                }
+            });
+            List<JsonNode> derived = new ArrayList<>();
+            for (Object fact : session.getObjects()) {
+                if (!identified.contains(fact)) derived.add(binder.unbind(fact));
+            }
+            m.put("facts", facts);
+            m.put("derivedFacts", derived);
+            m.put("changes", changes);
+            m.put("createdAt", createdAt);
+            if (changedAt != null) m.put("changedAt", changedAt);
+            m.put("estimatedBytes", estimatedBytes);
+            return m;
+        }
+
+        private void close() {
+            if (closed) return;
+            closed = true;
+            if (session != null) session.dispose();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out of {@link RuleChangeEvent}s.
+ *
+ * Events are delivered once committed (locally or on another node, via the change log), on a
+ * single dispatcher thread, so a slow subscriber never holds up a write request. A small ring of
+ * recent events is kept so clients reconnecting with Last-Event-ID do not miss changes.
+ */
+@Service
+public class RuleChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleChangeFeed.class);
+
+    private static final int REPLAY_SIZE = 256;
+
+    private final long timeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<Sequenced> recent = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "rule-change-feed");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RuleChangeFeed(@Value("${rulemanager.events.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Register a subscriber. rulesetId == null means "all rulesets".
+     * lastEventId (from the Last-Event-ID header) replays anything newer still held in memory.
+     *
+     * Registration, the replay snapshot and queueing the replay happen under the ring's lock, which
+     * onChange also holds while sequencing and queueing an event. Events up to the snapshot reach the
+     * subscriber only through the replay, later ones only live and after it: none is lost or sent twice.
+     */
+    public SseEmitter subscribe(Long rulesetId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        synchronized (recent) {
+            Subscriber sub = new Subscriber(emitter, rulesetId, sequence.get());
+            emitter.onCompletion(() -> subscribers.remove(sub));
+            emitter.onTimeout(() -> subscribers.remove(sub));
+            emitter.onError(ex -> subscribers.remove(sub));
+            subscribers.add(sub);
+
+            if (lastEventId != null) {
+                List<Sequenced> missed = new ArrayList<>();
+                for (Sequenced s : recent) {
+                    if (s.id > lastEventId) missed.add(s);
+                }
+                dispatcher.execute(() -> missed.forEach(s -> deliver(sub, s)));
+            }
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        RuleChangeEvent event = committed.getChange();
+        synchronized (recent) {
+            Sequenced s = new Sequenced(sequence.incrementAndGet(), event);
+            recent.addLast(s);
+            if (recent.size() > REPLAY_SIZE) recent.removeFirst();
+            dispatcher.execute(() -> subscribers.forEach(sub -> {
+                // older events reach a new subscriber through its replay only
+                if (s.id > sub.registeredAfter) deliver(sub, s);
+            }));
+        }
+    }
+
+    /**
+     * Comment-only heartbeat so idle connections survive load balancer idle timeouts.
+     */
+    @Scheduled(fixedDelayString = "${rulemanager.events.heartbeat-ms:20000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        dispatcher.execute(() -> subscribers.forEach(sub -> {
+            try {
+                sub.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(sub);
+                sub.emitter.completeWithError(ex);
+            }
+        }));
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void deliver(Subscriber sub, Sequenced s) {
+        if (sub.rulesetId != null && !sub.rulesetId.equals(s.event.getRulesetId())) return;
+        try {
+            sub.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(s.id))
+                    .name(s.event.getType().name())
+                    .data(s.event, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("dropping SSE subscriber: {}", ex.getMessage());
+            subscribers.remove(sub);
+            sub.emitter.completeWithError(ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(sub -> sub.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * registeredAfter is the last event id sequenced before the subscriber was added.
+     */
+    private record Subscriber(SseEmitter emitter, Long rulesetId, long registeredAfter) {}
+
+    private record Sequenced(long id, RuleChangeEvent event) {}
+}
@@ -0,0 +1,193 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.model.RuleChangeLog;
+import com.example.rulemanager.repository.RuleChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cross-node cache invalidation through the RULE_CHANGE_LOG table.
+ *
+ * Every local {@link RuleChangeEvent} is appended to the log inside the mutating transaction and,
+ * once committed, re-published as a {@link RuleChangeCommittedEvent}. Each node tails the log with
+ * a high-water mark and publishes the entries written by other nodes the same way, so caches only
+ * need to listen for {@link RuleChangeCommittedEvent}.
+ */
+@Service
+public class RuleChangeLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleChangeLogService.class);
+
+    private final RuleChangeLogRepository repository;
+    private final ApplicationEventPublisher events;
+    private final String nodeId;
+    private final int batchSize;
+    private final long gapGraceMs;
+    private final long gapRetainMs;
+    private final long retentionHours;
+
+    // tailer state; only touched from the scheduler thread
+    private Long highWaterMark;
+    private final TreeSet<Long> seenAhead = new TreeSet<>();
+    private long gapSince;
+    private final List<SkippedGap> skippedGaps = new ArrayList<>();
+
+    public RuleChangeLogService(RuleChangeLogRepository repository,
+                                ApplicationEventPublisher events,
+                                @Value("${rulemanager.node-id:${random.uuid}}") String nodeId,
+                                @Value("${rulemanager.changelog.batch-size:500}") int batchSize,
+                                @Value("${rulemanager.changelog.gap-grace-ms:10000}") long gapGraceMs,
+                                @Value("${rulemanager.changelog.gap-retain-ms:300000}") long gapRetainMs,
+                                @Value("${rulemanager.changelog.retention-hours:24}") long retentionHours) {
+        this.repository = repository;
+        this.events = events;
+        this.nodeId = nodeId;
+        this.batchSize = batchSize;
+        this.gapGraceMs = gapGraceMs;
+        this.gapRetainMs = gapRetainMs;
+        this.retentionHours = retentionHours;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Runs synchronously in the publisher's thread, so the row joins the mutating transaction.
+     */
+    @EventListener
+    public void record(RuleChangeEvent event) {
+        RuleChangeLog row = new RuleChangeLog();
+        row.setChangeType(event.getType());
+        row.setRulesetId(event.getRulesetId());
+        row.setRulesetVersion(event.getVersion());
+        row.setRuleId(event.getRuleId());
+        row.setObjectType(event.getObjectType());
+        row.setObjectKey(event.getObjectKey());
+        row.setNodeId(nodeId);
+        row.setCreatedAt(LocalDateTime.ofInstant(event.getTimestamp(), ZoneId.systemDefault()));
+        repository.save(row);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCommit(RuleChangeEvent event) {
+        events.publishEvent(new RuleChangeCommittedEvent(event, false));
+    }
+
+    /**
+     * Tail entries written by other nodes.
+     *
+     * IDENTITY ids can become visible out of order (a lower id committing after a higher one), so
+     * the high-water mark only moves over contiguous ids; a hole is skipped once it has been open
+     * longer than the grace period (rolled-back inserts leave permanent holes). Skipped holes are
+     * still re-read on every poll for gap-retain-ms, so an entry committing that late is delivered
+     * too; one committing after that is missed, and its change only reaches this node's caches
+     * through their own expiry or a later change of the same ruleset.
+     *
+     * Read-only on purpose: with a replica configured the log is tailed there, so a change is only
+     * published once the data it refers to can be read back from the replica too.
+     */
+    @Scheduled(fixedDelayString = "${rulemanager.changelog.poll-ms:2000}")
+    @Transactional(readOnly = true)
+    public void poll() {
+        if (highWaterMark == null) {
+            // start from "now": history before this node started is irrelevant to an empty cache
+            highWaterMark = repository.findMaxId();
+            return;
+        }
+
+        List<RuleChangeLog> rows = repository.findByIdGreaterThanOrderByIdAsc(highWaterMark, PageRequest.of(0, batchSize));
+        for (RuleChangeLog row : rows) {
+            if (!seenAhead.add(row.getId())) continue;
+            deliver(row);
+        }
+        advanceHighWaterMark();
+        recheckSkippedGaps();
+    }
+
+    private void deliver(RuleChangeLog row) {
+        if (!nodeId.equals(row.getNodeId())) {
+            events.publishEvent(new RuleChangeCommittedEvent(toEvent(row), true));
+        }
+    }
+
+    /**
+     * Deliver entries that committed inside a hole after the high-water mark moved past it.
+     */
+    private void recheckSkippedGaps() {
+        long now = System.currentTimeMillis();
+        for (Iterator<SkippedGap> it = skippedGaps.iterator(); it.hasNext(); ) {
+            SkippedGap gap = it.next();
+            if (now > gap.expiresAt()) {
+                it.remove();
+                continue;
+            }
+            for (RuleChangeLog row : repository.findByIdBetweenOrderByIdAsc(gap.from(), gap.to())) {
+                if (gap.delivered().add(row.getId())) {
+                    log.debug("change log: late entry {} inside skipped gap {}..{}", row.getId(), gap.from(), gap.to());
+                    deliver(row);
+                }
+            }
+            if (gap.delivered().size() == gap.to() - gap.from() + 1) it.remove();
+        }
+    }
+
+    private void advanceHighWaterMark() {
+        long before = highWaterMark;
+        while (!seenAhead.isEmpty() && seenAhead.first() == highWaterMark + 1) {
+            highWaterMark = seenAhead.pollFirst();
+        }
+        if (seenAhead.isEmpty() || highWaterMark != before) {
+            // no hole, or the previous hole closed: restart the grace clock
+            gapSince = 0;
+            if (seenAhead.isEmpty()) return;
+        }
+        long now = System.currentTimeMillis();
+        if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince > gapGraceMs) {
+            log.debug("change log: skipping id gap {}..{}", highWaterMark + 1, seenAhead.first() - 1);
+            skippedGaps.add(new SkippedGap(highWaterMark + 1, seenAhead.first() - 1, now + gapRetainMs, new HashSet<>()));
+            highWaterMark = seenAhead.first() - 1;
+            gapSince = 0;
+            advanceHighWaterMark();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rulemanager.changelog.prune-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int removed = repository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+        if (removed > 0) log.info("change log: pruned {} entries older than {}h", removed, retentionHours);
+    }
+
+    /**
+     * A hole the high-water mark skipped, re-read until expiresAt; delivered holds ids already published.
+     */
+    private record SkippedGap(long from, long to, long expiresAt, Set<Long> delivered) {}
+
+    private static RuleChangeEvent toEvent(RuleChangeLog row) {
+        return RuleChangeEvent.of(row.getChangeType(), row.getRulesetId(), row.getRulesetVersion(), row.getRuleId(),
+                row.getObjectType(), row.getObjectKey(),
+                row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
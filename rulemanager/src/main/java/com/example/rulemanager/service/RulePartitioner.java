@@ -0,0 +1,481 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleType;
+import org.drools.drl.ast.descr.AbstractClassTypeDeclarationDescr;
+import org.drools.drl.ast.descr.AccumulateDescr;
+import org.drools.drl.ast.descr.AndDescr;
+import org.drools.drl.ast.descr.AttributeDescr;
+import org.drools.drl.ast.descr.BaseDescr;
+import org.drools.drl.ast.descr.CollectDescr;
+import org.drools.drl.ast.descr.ConditionalElementDescr;
+import org.drools.drl.ast.descr.EntryPointDescr;
+import org.drools.drl.ast.descr.EnumDeclarationDescr;
+import org.drools.drl.ast.descr.ExistsDescr;
+import org.drools.drl.ast.descr.ImportDescr;
+import org.drools.drl.ast.descr.OrDescr;
+import org.drools.drl.ast.descr.PackageDescr;
+import org.drools.drl.ast.descr.PatternDescr;
+import org.drools.drl.ast.descr.QualifiedName;
+import org.drools.drl.ast.descr.RuleDescr;
+import org.drools.drl.parser.DrlParser;
+import org.drools.drl.parser.DroolsParserException;
+import org.kie.api.KieBase;
+import org.kie.api.io.ResourceType;
+import org.kie.internal.builder.CompositeKnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.io.ResourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a ruleset into groups of rules that can never see each other's facts, so each group is compiled
+ * into its own KieBase and an evaluation only runs the groups its facts can match.
+ *
+ * Rules are joined (union-find) over the fact types their patterns match and the facts their consequences
+ * insert. Types are joined when a fact that can actually exist (a declared type, an inserted type or the
+ * {@code Map} the binder produces) is assignable to both. Anything whose effect spans the whole session
+ * (queries, agenda and ruleflow groups, rule units, inserts of unknown type) keeps the ruleset monolithic,
+ * as do DMN models.
+ */
+@Component
+public class RulePartitioner {
+
+    private static final Logger log = LoggerFactory.getLogger(RulePartitioner.class);
+
+    /** Class of the facts {@link FactBinder} produces for JSON without "@type". */
+    private static final Class<?> MAP_FACT = LinkedHashMap.class;
+
+    private static final Pattern INSERT = Pattern.compile("\\binsert(?:Logical)?\\s*\\(");
+    private static final Pattern INSERT_NEW = Pattern.compile("\\binsert(?:Logical)?\\s*\\(\\s*new\\s+([\\w$.]+)");
+    private static final Pattern SESSION_WIDE = Pattern.compile("\\b(getKieRuntime|getEntryPoint|setFocus)\\b");
+    private static final Set<String> SESSION_WIDE_ATTRIBUTES = Set.of("agenda-group", "ruleflow-group", "auto-focus");
+
+    private final boolean enabled;
+
+    public RulePartitioner(@Value("${rulemanager.partitioning.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Compile the ruleset's rules as independent partitions.
+     *
+     * @return the partitions, or an empty list when the ruleset should stay one KieBase
+     *         (partitioning disabled or not possible, a single group, or a partition that does not build;
+     *         the regular build reports the actual errors)
+     */
+    public List<FactPartition> partition(Long rulesetId, List<RuleDefinition> rules) {
+        if (!enabled) return List.of();
+        try {
+            Analysis analysis = analyse(rules);
+            if (analysis.groups.size() < 2) {
+                log.debug("ruleset {}: not partitioned (single group of rules)", rulesetId);
+                return List.of();
+            }
+            List<FactPartition> partitions = new ArrayList<>(analysis.groups.size());
+            for (Group group : analysis.groups) {
+                partitions.add(build(analysis, group));
+            }
+            log.info("ruleset {}: {} fact-type partitions ({} rules)", rulesetId, partitions.size(),
+                    partitions.stream().map(FactPartition::getRuleCount).toList());
+            return partitions;
+        } catch (NotPartitionable ex) {
+            log.debug("ruleset {}: not partitioned ({})", rulesetId, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    // ====================== Analysis ======================
+
+    private static final class NotPartitionable extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        NotPartitionable(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    /** Rules of one partition, identified by source index and rule name. */
+    private static final class Group {
+        final Set<String> ruleKeys = new LinkedHashSet<>();
+        final Set<String> declaredTypes = new LinkedHashSet<>();
+        final List<Class<?>> javaTypes = new ArrayList<>();
+        boolean alwaysRun;
+    }
+
+    private record Analysis(List<String> sources, List<Group> groups) {}
+
+    private Analysis analyse(List<RuleDefinition> rules) throws NotPartitionable {
+        List<String> sources = new ArrayList<>();
+        for (RuleDefinition rule : rules) {
+            if (rule.getRuleType() == RuleType.DRL && rule.getRuleContent() != null) {
+                sources.add(rule.getRuleContent());
+            } else if (rule.getRuleType() == RuleType.DECISION_TABLE && rule.hasCurrentGeneratedDrl()) {
+                sources.add(rule.getGeneratedDrl());
+            } else if (rule.getRuleType() == RuleType.DMN) {
+                throw new NotPartitionable("ruleset contains DMN models");
+            } else if (rule.getRuleType() == RuleType.DECISION_TABLE && rule.getRuleFile() != null) {
+                throw new NotPartitionable("decision table " + rule.getRuleName() + " has no generated DRL");
+            }
+        }
+
+        List<PackageDescr> packages = new ArrayList<>(sources.size());
+        for (String source : sources) {
+            packages.add(parse(source));
+        }
+
+        TypeResolver types = new TypeResolver(getClass().getClassLoader(), packages);
+        UnionFind joined = new UnionFind();
+        Set<String> patternTypes = new LinkedHashSet<>();
+        Set<String> factTypes = new LinkedHashSet<>(types.declared.keySet());
+        factTypes.add(MAP_FACT.getName());
+        Map<String, Boolean> ruleNeedsFact = new LinkedHashMap<>();
+
+        for (int i = 0; i < packages.size(); i++) {
+            PackageDescr pkg = packages.get(i);
+            if (pkg.getUnit() != null) throw new NotPartitionable("package " + pkg.getName() + " is a rule unit");
+            checkAttributes("package " + pkg.getName(), pkg.getAttributes());
+
+            for (RuleDescr rule : pkg.getRules()) {
+                String where = "rule " + rule.getName();
+                if (rule.isQuery()) throw new NotPartitionable("package " + pkg.getName() + " declares queries");
+                if (rule.getUnit() != null) throw new NotPartitionable(where + " belongs to a rule unit");
+                checkAttributes(where, rule.getAttributes().values());
+
+                String ruleKey = ruleKey(i, rule.getName());
+                Set<String> matched = new LinkedHashSet<>();
+                collectPatternTypes(rule.getLhs(), types, pkg, matched, where);
+                patternTypes.addAll(matched);
+                Set<String> related = new LinkedHashSet<>(matched);
+                for (String inserted : insertedTypes(rule, types, pkg, where)) {
+                    related.add(inserted);
+                    factTypes.add(inserted);
+                }
+                AttributeDescr activationGroup = rule.getAttributes().get("activation-group");
+                if (activationGroup != null) related.add("activation-group:" + activationGroup.getValue());
+                if (rule.hasParent()) related.add(ruleKey(i, rule.getParentName()));
+                // rules without patterns only match the initial fact: keep them together
+                if (matched.isEmpty()) related.add("initial-fact");
+
+                joined.add(ruleKey);
+                related.forEach(r -> joined.union(ruleKey, r));
+                ruleNeedsFact.put(ruleKey, needsFact(rule.getLhs()));
+            }
+        }
+
+        // a fact that can exist joins every pattern type it is assignable to
+        for (String fact : factTypes) {
+            for (String pattern : patternTypes) {
+                if (types.isAssignable(fact, pattern)) joined.union(fact, pattern);
+            }
+        }
+
+        Map<String, Group> byRoot = new LinkedHashMap<>();
+        ruleNeedsFact.forEach((ruleKey, needsFact) -> {
+            Group group = byRoot.computeIfAbsent(joined.find(ruleKey), r -> new Group());
+            group.ruleKeys.add(ruleKey);
+            group.alwaysRun |= !needsFact;
+        });
+        Set<String> typed = new LinkedHashSet<>(patternTypes);
+        typed.addAll(factTypes);
+        for (String type : typed) {
+            Group group = byRoot.get(joined.find(type));
+            if (group == null) continue;
+            if (types.declared.containsKey(type)) {
+                group.declaredTypes.add(type);
+            } else if (patternTypes.contains(type)) {
+                group.javaTypes.add(types.load(type));
+            }
+        }
+        return new Analysis(sources, new ArrayList<>(byRoot.values()));
+    }
+
+    private static void checkAttributes(String where, Iterable<AttributeDescr> attributes) throws NotPartitionable {
+        for (AttributeDescr attribute : attributes) {
+            if (SESSION_WIDE_ATTRIBUTES.contains(attribute.getName())) {
+                throw new NotPartitionable(where + " uses " + attribute.getName());
+            }
+        }
+    }
+
+    /**
+     * Working-memory types matched anywhere in the conditions. Patterns reading from an expression
+     * ({@code from}, or the result of accumulate/collect) do not match facts themselves.
+     */
+    private static void collectPatternTypes(BaseDescr descr, TypeResolver types, PackageDescr pkg,
+                                            Set<String> out, String where) throws NotPartitionable {
+        if (descr instanceof PatternDescr pattern) {
+            if (pattern.getSource() == null || pattern.getSource() instanceof EntryPointDescr) {
+                out.add(types.resolveOrFail(pattern.getObjectType(), pkg, where));
+            } else if (pattern.getSource() instanceof AccumulateDescr accumulate && accumulate.getInput() != null) {
+                collectPatternTypes(accumulate.getInput(), types, pkg, out, where);
+            } else if (pattern.getSource() instanceof CollectDescr collect && collect.getInputPattern() != null) {
+                collectPatternTypes(collect.getInputPattern(), types, pkg, out, where);
+            }
+        } else if (descr instanceof ConditionalElementDescr ce) {
+            for (BaseDescr child : ce.getDescrs()) {
+                collectPatternTypes(child, types, pkg, out, where);
+            }
+        }
+    }
+
+    /**
+     * False when the rule can fire with no fact at all (only not/forall/eval or accumulate conditions),
+     * so its partition has to run on every evaluation.
+     */
+    private static boolean needsFact(BaseDescr descr) {
+        if (descr instanceof PatternDescr pattern) {
+            return pattern.getSource() == null || pattern.getSource() instanceof EntryPointDescr;
+        }
+        if (descr instanceof AndDescr || descr instanceof ExistsDescr) {
+            for (BaseDescr child : ((ConditionalElementDescr) descr).getDescrs()) {
+                if (needsFact(child)) return true;
+            }
+            return false;
+        }
+        if (descr instanceof OrDescr or) {
+            for (BaseDescr child : or.getDescrs()) {
+                if (!needsFact(child)) return false;
+            }
+            return !or.getDescrs().isEmpty();
+        }
+        return false;
+    }
+
+    private static Set<String> insertedTypes(RuleDescr rule, TypeResolver types, PackageDescr pkg, String where)
+            throws NotPartitionable {
+        List<String> consequences = new ArrayList<>();
+        if (rule.getConsequence() != null) consequences.add(rule.getConsequence().toString());
+        rule.getNamedConsequences().values().forEach(c -> consequences.add(String.valueOf(c)));
+
+        Set<String> inserted = new LinkedHashSet<>();
+        for (String rhs : consequences) {
+            if (SESSION_WIDE.matcher(rhs).find()) {
+                throw new NotPartitionable(where + " reaches into the session from its consequence");
+            }
+            int inserts = 0;
+            Matcher any = INSERT.matcher(rhs);
+            while (any.find()) inserts++;
+            Matcher typed = INSERT_NEW.matcher(rhs);
+            while (typed.find()) {
+                inserted.add(types.resolveOrFail(typed.group(1), pkg, where));
+                inserts--;
+            }
+            if (inserts > 0) throw new NotPartitionable(where + " inserts facts of unknown type");
+        }
+        return inserted;
+    }
+
+    // ====================== Build ======================
+
+    private FactPartition build(Analysis analysis, Group group) throws NotPartitionable {
+        // descrs are re-parsed per partition: the builder annotates them while compiling
+        KnowledgeBuilder builder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        CompositeKnowledgeBuilder batch = builder.batch();
+        for (int i = 0; i < analysis.sources.size(); i++) {
+            PackageDescr source = parse(analysis.sources.get(i));
+            PackageDescr subset = headerOf(source);
+            for (RuleDescr rule : source.getRules()) {
+                if (group.ruleKeys.contains(ruleKey(i, rule.getName()))) subset.addRule(rule);
+            }
+            batch.add(ResourceFactory.newDescrResource(subset), ResourceType.DESCR);
+        }
+        batch.build();
+        if (builder.hasErrors()) {
+            throw new NotPartitionable("partition does not build: " + builder.getErrors());
+        }
+        KieBase kieBase = builder.newKieBase();
+        return new FactPartition(kieBase, Set.copyOf(group.declaredTypes), List.copyOf(group.javaTypes),
+                group.alwaysRun, group.ruleKeys.size());
+    }
+
+    /**
+     * Everything of a package but its rules. Type declarations and functions go into every partition;
+     * facts of declared types are bound to the class of the partition that matches them.
+     */
+    private static PackageDescr headerOf(PackageDescr source) {
+        PackageDescr header = new PackageDescr(source.getNamespace());
+        header.addAllImports(source.getImports());
+        source.getFunctionImports().forEach(header::addFunctionImport);
+        source.getAccumulateImports().forEach(header::addAccumulateImport);
+        source.getGlobals().forEach(header::addGlobal);
+        source.getAttributes().forEach(header::addAttribute);
+        source.getFunctions().forEach(header::addFunction);
+        source.getTypeDeclarations().forEach(header::addTypeDeclaration);
+        source.getEnumDeclarations().forEach(header::addEnumDeclaration);
+        source.getEntryPointDeclarations().forEach(header::addEntryPointDeclaration);
+        source.getWindowDeclarations().forEach(header::addWindowDeclaration);
+        return header;
+    }
+
+    private static PackageDescr parse(String drl) throws NotPartitionable {
+        DrlParser parser = new DrlParser();
+        try {
+            PackageDescr descr = parser.parse(false, drl);
+            if (descr == null || parser.hasErrors()) throw new NotPartitionable("DRL does not parse");
+            return descr;
+        } catch (DroolsParserException ex) {
+            throw new NotPartitionable("DRL does not parse: " + ex.getMessage());
+        }
+    }
+
+    private static String ruleKey(int source, String ruleName) {
+        return "rule:" + source + ":" + ruleName;
+    }
+
+    // ====================== Types ======================
+
+    /**
+     * Resolves type names as the DRL compiler would (declared types, imports, own package, java.lang)
+     * and answers assignability between declared and Java types.
+     */
+    private static final class TypeResolver {
+
+        private final ClassLoader classLoader;
+        /** Declared type name → its resolved super types. */
+        private final Map<String, List<String>> declared = new HashMap<>();
+        private final Map<String, Class<?>> loaded = new HashMap<>();
+
+        TypeResolver(ClassLoader classLoader, List<PackageDescr> packages) throws NotPartitionable {
+            this.classLoader = classLoader;
+            // names first, so declared types may extend each other in any order
+            for (PackageDescr pkg : packages) {
+                for (AbstractClassTypeDeclarationDescr type : pkg.getClassAndEnumDeclarationDescrs()) {
+                    // "declare SomeJavaClass ... end" only adds metadata to an existing class
+                    String name = declaredName(type, pkg);
+                    if (load(name) == null) declared.put(name, new ArrayList<>());
+                }
+            }
+            for (PackageDescr pkg : packages) {
+                for (AbstractClassTypeDeclarationDescr type : pkg.getClassAndEnumDeclarationDescrs()) {
+                    List<String> supers = declared.get(declaredName(type, pkg));
+                    if (supers == null) continue;
+                    if (type instanceof EnumDeclarationDescr) supers.add(Enum.class.getName());
+                    for (QualifiedName superType : type.getSuperTypes()) {
+                        String resolved = resolve(superType.getFullName(), pkg);
+                        if (resolved == null) resolved = resolve(superType.getName(), pkg);
+                        if (resolved == null) {
+                            throw new NotPartitionable("unknown super type " + superType.getFullName()
+                                    + " of " + type.getTypeName());
+                        }
+                        supers.add(resolved);
+                    }
+                }
+            }
+        }
+
+        /** The parser leaves the namespace empty for types declared by simple name. */
+        private static String declaredName(AbstractClassTypeDeclarationDescr type, PackageDescr pkg) {
+            String name = type.getFullTypeName();
+            return name.indexOf('.') < 0 ? pkg.getName() + "." + name : name;
+        }
+
+        String resolveOrFail(String name, PackageDescr pkg, String where) throws NotPartitionable {
+            String resolved = resolve(name, pkg);
+            if (resolved == null) throw new NotPartitionable(where + " uses unknown type " + name);
+            return resolved;
+        }
+
+        String resolve(String name, PackageDescr pkg) {
+            if (name == null) return null;
+            int generic = name.indexOf('<');
+            if (generic > 0) name = name.substring(0, generic);
+            name = name.trim();
+
+            List<String> candidates = new ArrayList<>();
+            candidates.add(name);
+            for (ImportDescr imp : pkg.getImports()) {
+                String target = imp.getTarget();
+                if (target.endsWith(".*")) {
+                    candidates.add(target.substring(0, target.length() - 1) + name);
+                } else if (target.endsWith("." + name)) {
+                    candidates.add(0, target);
+                }
+            }
+            candidates.add(1, pkg.getName() + "." + name);
+            candidates.add("java.lang." + name);
+
+            for (String candidate : candidates) {
+                if (declared.containsKey(candidate) || load(candidate) != null) return candidate;
+            }
+            return null;
+        }
+
+        /** Can a fact of type {@code fact} be matched by a pattern on {@code pattern}? */
+        boolean isAssignable(String fact, String pattern) {
+            if (fact.equals(pattern)) return true;
+            List<String> supers = declared.get(fact);
+            if (supers != null) {
+                // generated classes are Serializable beans extending their super class (or Object)
+                Class<?> target = load(pattern);
+                if (target == Object.class || target == Serializable.class) return true;
+                for (String superType : supers) {
+                    if (isAssignable(superType, pattern)) return true;
+                }
+                return false;
+            }
+            Class<?> source = load(fact);
+            Class<?> target = declared.containsKey(pattern) ? null : load(pattern);
+            return source != null && target != null && target.isAssignableFrom(source);
+        }
+
+        Class<?> load(String name) {
+            if (loaded.containsKey(name)) return loaded.get(name);
+            Class<?> type = null;
+            String candidate = name;
+            while (type == null) {
+                try {
+                    type = Class.forName(candidate, false, classLoader);
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    // nested classes are written Outer.Inner in DRL
+                    int dot = candidate.lastIndexOf('.');
+                    if (dot < 0) break;
+                    candidate = candidate.substring(0, dot) + '$' + candidate.substring(dot + 1);
+                }
+            }
+            loaded.put(name, type);
+            return type;
+        }
+    }
+
+    private static final class UnionFind {
+        private final Map<String, String> parent = new HashMap<>();
+
+        void add(String key) {
+            parent.putIfAbsent(key, key);
+        }
+
+        String find(String key) {
+            add(key);
+            String root = key;
+            while (!root.equals(parent.get(root))) root = parent.get(root);
+            // path compression
+            while (!key.equals(root)) {
+                String next = parent.get(key);
+                parent.put(key, root);
+                key = next;
+            }
+            return root;
+        }
+
+        void union(String a, String b) {
+            String ra = find(a);
+            String rb = find(b);
+            if (!ra.equals(rb)) parent.put(rb, ra);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over rule names and rule text (DRL, DRL generated from decision
+ * tables, DMN XML).
+ *
+ * Built in the background at startup and kept current from committed change events (local and
+ * from other nodes), applied in order on a single indexing thread so writers never wait for it.
+ * Only terms and a little metadata are held; snippets are read from the database for the page
+ * of hits being returned.
+ *
+ * Identifiers are indexed whole and by camelCase/snake_case part, so "creditScore" is found by
+ * "creditscore", "credit" or "score". A query term ending in '*' matches by prefix; all terms must match.
+ */
+@Service
+public class RuleSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSearchIndex.class);
+
+    private static final int BUILD_PAGE_SIZE = 200;
+    private static final int NAME_BOOST = 10;
+    private static final int SNIPPET_CHARS = 160;
+
+    private final RuleRepository ruleRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnly;
+
+    // term -> (ruleId -> occurrences); sorted so prefix queries are a range scan
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "rule-search-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RuleSearchIndex(RuleRepository ruleRepository, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager) {
+        this.ruleRepository = ruleRepository;
+        this.entityManager = entityManager;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    private record Doc(Long rulesetId, String ruleName, RuleType ruleType, Set<String> terms) {}
+
+    public record Hit(Long ruleId, Long rulesetId, String ruleName, RuleType ruleType, int score) {}
+
+    public record Result(long total, List<Hit> hits) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        indexer.execute(this::rebuild);
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        RuleChangeEvent change = committed.getChange();
+        switch (change.getType()) {
+            case RULE_SAVED, RULE_DELETED -> {
+                if (change.getRuleId() != null) indexer.execute(() -> reindexRule(change.getRuleId()));
+            }
+            // publish, update (bulk import/replace) and delete may touch every rule of the ruleset
+            case RULESET_PUBLISHED, RULESET_UPDATED, RULESET_DELETED -> {
+                if (change.getRulesetId() != null) indexer.execute(() -> reindexRuleSet(change.getRulesetId()));
+            }
+            case MAPPING_CHANGED -> { }
+        }
+    }
+
+    public boolean isReady() { return ready; }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rules matching every term of {@code query}, best first (name matches rank above content
+     * matches, then by number of occurrences). rulesetId == null searches all rulesets.
+     */
+    public Result search(String query, Long rulesetId, int page, int size) {
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefix = new ArrayList<>();
+        for (String raw : query.trim().split("\\s+")) {
+            boolean isPrefix = raw.endsWith("*");
+            String term = normalize(isPrefix ? raw.substring(0, raw.length() - 1) : raw);
+            if (term.isEmpty()) continue;
+            terms.add(term);
+            prefix.add(isPrefix);
+        }
+        if (terms.isEmpty()) return new Result(0, List.of());
+
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Integer> matches = match(terms.get(i), prefix.get(i));
+                if (scores == null) {
+                    scores = new HashMap<>(matches);
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + matches.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) break;
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                Doc doc = docs.get(e.getKey());
+                if (doc == null || (rulesetId != null && !rulesetId.equals(doc.rulesetId()))) continue;
+                hits.add(new Hit(e.getKey(), doc.rulesetId(), doc.ruleName(), doc.ruleType(), e.getValue()));
+            }
+            hits.sort(Comparator.comparingInt(Hit::score).reversed().thenComparing(Hit::ruleId));
+            int from = Math.min(hits.size(), page * size);
+            int to = Math.min(hits.size(), from + size);
+            return new Result(hits.size(), new ArrayList<>(hits.subList(from, to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * First line of each rule's text that contains one of the query terms, trimmed to a short window.
+     * Loaded from the database, one rule at a time, only for the hits of the returned page.
+     */
+    public Map<Long, Map<String, Object>> snippets(List<Hit> hits, String query) {
+        List<String> needles = new ArrayList<>();
+        for (String raw : query.trim().split("\\s+")) {
+            String n = raw.replace("*", "").toLowerCase(Locale.ROOT);
+            if (!n.isEmpty()) needles.add(n);
+        }
+        Map<Long, Map<String, Object>> result = new LinkedHashMap<>();
+        readOnly.executeWithoutResult(status -> {
+            for (Hit hit : hits) {
+                RuleDefinition rule = ruleRepository.findById(hit.ruleId()).orElse(null);
+                if (rule == null) continue;
+                Map<String, Object> snippet = snippet(textOf(rule), needles);
+                if (snippet != null) result.put(hit.ruleId(), snippet);
+                entityManager.detach(rule);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    // ===================== indexing (indexer thread only) =====================
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            readOnly.executeWithoutResult(status -> {
+                int page = 0;
+                Page<RuleDefinition> rules;
+                do {
+                    rules = ruleRepository.findAll(PageRequest.of(page++, BUILD_PAGE_SIZE, Sort.by("id")));
+                    rules.forEach(this::put);
+                    entityManager.clear();
+                } while (rules.hasNext());
+            });
+            ready = true;
+            log.info("search index built: {} rules, {} terms in {} ms", size(), termCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            log.warn("search index build failed: {}", ex.getMessage());
+        }
+    }
+
+    private void reindexRule(Long ruleId) {
+        try {
+            readOnly.executeWithoutResult(status -> {
+                RuleDefinition rule = ruleRepository.findById(ruleId).orElse(null);
+                if (rule == null) {
+                    remove(ruleId);
+                } else {
+                    put(rule);
+                    entityManager.detach(rule);
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("search index: reindexing rule {} failed: {}", ruleId, ex.getMessage());
+        }
+    }
+
+    private void reindexRuleSet(Long rulesetId) {
+        try {
+            readOnly.executeWithoutResult(status -> {
+                Set<Long> stale = new HashSet<>();
+                lock.readLock().lock();
+                try {
+                    docs.forEach((id, doc) -> { if (rulesetId.equals(doc.rulesetId())) stale.add(id); });
+                } finally {
+                    lock.readLock().unlock();
+                }
+                for (RuleDefinition rule : ruleRepository.findByRuleSetId(rulesetId)) {
+                    put(rule);
+                    stale.remove(rule.getId());
+                    entityManager.detach(rule);
+                }
+                stale.forEach(this::remove);
+            });
+        } catch (RuntimeException ex) {
+            log.warn("search index: reindexing ruleset {} failed: {}", rulesetId, ex.getMessage());
+        }
+    }
+
+    private void put(RuleDefinition rule) {
+        Map<String, Integer> counts = new HashMap<>();
+        tokenize(rule.getRuleName(), NAME_BOOST, counts);
+        tokenize(textOf(rule), 1, counts);
+        Long rulesetId = rule.getRuleSet() == null ? null : rule.getRuleSet().getId();
+        Doc doc = new Doc(rulesetId, rule.getRuleName(), rule.getRuleType(), Set.copyOf(counts.keySet()));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(rule.getId());
+            docs.put(rule.getId(), doc);
+            counts.forEach((term, n) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(rule.getId(), n));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long ruleId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ruleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long ruleId) {
+        Doc old = docs.remove(ruleId);
+        if (old == null) return;
+        for (String term : old.terms()) {
+            Map<Long, Integer> p = postings.get(term);
+            if (p != null && p.remove(ruleId) != null && p.isEmpty()) postings.remove(term);
+        }
+    }
+
+    private Map<Long, Integer> match(String term, boolean prefix) {
+        if (!prefix) return postings.getOrDefault(term, Map.of());
+        Map<Long, Integer> merged = new HashMap<>();
+        for (Map<Long, Integer> p : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            p.forEach((id, n) -> merged.merge(id, n, Integer::sum));
+        }
+        return merged;
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===================== text helpers =====================
+
+    private static String textOf(RuleDefinition rule) {
+        if (rule.getRuleType() == RuleType.DECISION_TABLE) return rule.getGeneratedDrl();
+        if (rule.getRuleContent() != null) return rule.getRuleContent();
+        if (rule.getRuleType() == RuleType.DMN && rule.getRuleFile() != null) {
+            return new String(rule.getRuleFile(), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * Identifiers ([A-Za-z0-9_]+) are indexed lower-cased, plus their camelCase and snake_case parts.
+     */
+    static void tokenize(String text, int weight, Map<String, Integer> counts) {
+        if (text == null) return;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            while (i < n && !isWordChar(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && isWordChar(text.charAt(i))) i++;
+            if (i > start) {
+                String word = text.substring(start, i);
+                Set<String> terms = new LinkedHashSet<>();
+                terms.add(normalize(word));
+                for (String part : word.split("_|(?<=[a-z0-9])(?=[A-Z])|(?<=[A-Z])(?=[A-Z][a-z])")) {
+                    terms.add(normalize(part));
+                }
+                for (String term : terms) {
+                    if (term.length() >= 2 && term.length() <= 64) counts.merge(term, weight, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}_]", "");
+    }
+
+    private static Map<String, Object> snippet(String text, List<String> needles) {
+        if (text == null) return null;
+        String[] lines = text.split("\\R", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String lower = lines[i].toLowerCase(Locale.ROOT);
+            for (String needle : needles) {
+                int at = lower.indexOf(needle);
+                if (at < 0) continue;
+                String line = lines[i].strip();
+                int indent = lines[i].length() - lines[i].stripLeading().length();
+                int from = Math.max(0, at - indent - SNIPPET_CHARS / 3);
+                int to = Math.min(line.length(), from + SNIPPET_CHARS);
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("line", i + 1);
+                m.put("text", (from > 0 ? "…" : "") + line.substring(from, to) + (to < line.length() ? "…" : ""));
+                return m;
+            }
+        }
+        return null;
+    }
+}
@@ -1,87 +1,308 @@
 package com.example.rulemanager.service;
 
+import com.example.rulemanager.config.ReadOnlyTransactional;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.jfr.ArtifactLoadEvent;
+import com.example.rulemanager.jfr.RuleSetCompileEvent;
 import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
 import com.example.rulemanager.model.RuleType;
 import com.example.rulemanager.repository.RuleRepository;
+import com.example.rulemanager.util.Hashing;
+import jakarta.transaction.Transactional;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.core.impl.InternalRuleBase;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
 import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieContainer;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
 import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.ParallelExecutionOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class RuleService {
 
+    private static final Logger log = LoggerFactory.getLogger(RuleService.class);
+
     private final RuleRepository repository;
+    private final ApplicationEventPublisher events;
+    private final DecisionTableCompiler decisionTableCompiler;
+    private final RulePartitioner partitioner;
 
-    public RuleService(RuleRepository repository) {
+    public RuleService(RuleRepository repository, ApplicationEventPublisher events,
+                       DecisionTableCompiler decisionTableCompiler, RulePartitioner partitioner) {
         this.repository = repository;
+        this.events = events;
+        this.decisionTableCompiler = decisionTableCompiler;
+        this.partitioner = partitioner;
     }
 
     /* ================== Persistence ================== */
 
+    @ReadOnlyTransactional
     public List<RuleDefinition> getAll() {
         return repository.findAll();
     }
 
+    @Transactional
     public RuleDefinition save(RuleDefinition rule) {
-        return repository.save(rule);
+        prepareArtifact(rule);
+        RuleDefinition saved = repository.save(rule);
+        RuleSet rs = saved.getRuleSet();
+        events.publishEvent(RuleChangeEvent.rule(RuleChangeType.RULE_SAVED,
+                rs == null ? null : rs.getId(), rs == null ? null : rs.getVersion(), saved.getId()));
+        return saved;
     }
 
+    @Transactional
     public void delete(Long id) {
+        RuleSet rs = repository.findById(id).map(RuleDefinition::getRuleSet).orElse(null);
         repository.deleteById(id);
+        events.publishEvent(RuleChangeEvent.rule(RuleChangeType.RULE_DELETED,
+                rs == null ? null : rs.getId(), rs == null ? null : rs.getVersion(), id));
     }
 
+    @ReadOnlyTransactional
     public List<RuleDefinition> getActiveRules() {
         return repository.findByActiveTrue();
     }
 
+    @ReadOnlyTransactional
     public RuleDefinition getById(Long id) {
         return repository.findById(id).orElse(null);
     }
 
+    /**
+     * Derive build artifacts before a rule is stored: decision tables are compiled to DRL here,
+     * once, so spreadsheet errors surface at upload time and builds never touch POI.
+     * Unchanged spreadsheets (same content hash) are not recompiled.
+     *
+     * @throws IllegalArgumentException if a decision table cannot be compiled
+     */
+    public void prepareArtifact(RuleDefinition rule) {
+        if (rule.getRuleType() == RuleType.DECISION_TABLE && rule.getRuleFile() != null) {
+            if (!rule.hasCurrentGeneratedDrl()) {
+                rule.setGeneratedDrl(decisionTableCompiler.toDrl(rule.getRuleFile()));
+                rule.setGeneratedFromHash(Hashing.sha256(rule.getRuleFile()));
+            }
+        } else {
+            rule.setGeneratedDrl(null);
+            rule.setGeneratedFromHash(null);
+        }
+    }
+
     /* ================== Drools Engine ================== */
 
+    private static final String RELEASE_GROUP = "com.example.rulemanager";
+
+    private final AtomicLong buildSequence = new AtomicLong();
+
     private KieContainer buildKieContainer() throws IOException {
         KieServices kieServices = KieServices.Factory.get();
         KieFileSystem kfs = kieServices.newKieFileSystem();
 
-        List<RuleDefinition> activeRules = getActiveRules();
+        writeResources(kieServices, kfs, getActiveRules());
 
-        for (RuleDefinition rule : activeRules) {
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new RuntimeException("Drools build errors: \n" + kieBuilder.getResults().toString());
+        }
+
+        return kieServices.newKieContainer(
+                kieServices.getRepository().getDefaultReleaseId()
+        );
+    }
+
+    /**
+     * Compile the active rules of one ruleset into its own KieModule.
+     * Each build gets a unique ReleaseId so concurrent rulesets (and rebuilds) never clash in the KieRepository.
+     *
+     * @throws BuildFailedException if the rules do not compile
+     */
+    public CompiledRuleSet compile(RuleSet ruleSet) {
+        RuleSetCompileEvent event = new RuleSetCompileEvent();
+        event.begin();
+        try {
+            CompiledRuleSet compiled = build(ruleSet);
+            event.resourceCount = compiled.getResourceCount();
+            event.partitions = compiled.getPartitions().size();
+            event.parallelEvaluation = compiled.isParallelEvaluation();
+            event.estimatedBytes = compiled.getEstimatedBytes();
+            event.succeeded = true;
+            return compiled;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.rulesetId = ruleSet.getId();
+                event.version = ruleSet.getVersion() == null ? 0 : ruleSet.getVersion();
+                event.commit();
+            }
+        }
+    }
+
+    private CompiledRuleSet build(RuleSet ruleSet) {
+        ArtifactLoadEvent load = new ArtifactLoadEvent();
+        load.begin();
+        List<RuleDefinition> rules = repository.findByRuleSetAndActiveTrue(ruleSet);
+        load.end();
+        if (load.shouldCommit()) {
+            load.purpose = "compile";
+            load.rulesetId = ruleSet.getId();
+            load.rules = rules.size();
+            load.bytes = ArtifactLoadEvent.contentBytes(rules);
+            load.commit();
+        }
+
+        long start = System.nanoTime();
+        KieServices kieServices = KieServices.Factory.get();
+        ReleaseId releaseId = kieServices.newReleaseId(RELEASE_GROUP, "ruleset-" + ruleSet.getId(),
+                ruleSet.getVersion() + "." + buildSequence.incrementAndGet());
+
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+        Written written = writeResources(kieServices, kfs, rules);
+
+        KieBuilder kieBuilder;
+        try {
+            kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        } catch (RuntimeException ex) {
+            // unreadable spreadsheets fail inside the builder instead of reporting a message
+            throw new BuildFailedException("Drools build failed for ruleset " + ruleSet.getId() + ": " + ex, ex);
+        }
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            kieServices.getRepository().removeKieModule(releaseId);
+            throw new BuildFailedException("Drools build errors for ruleset " + ruleSet.getId() + ": \n"
+                    + kieBuilder.getResults().toString(), null);
+        }
+
+        KieContainer container = kieServices.newKieContainer(releaseId);
+        KieBase kieBase = null;
+        boolean parallel = false;
+        String sequentialReason = null;
+        if (Boolean.TRUE.equals(ruleSet.getParallelEvaluation())) {
+            KieBaseConfiguration conf = kieServices.newKieBaseConfiguration();
+            conf.setOption(ParallelExecutionOption.PARALLEL_EVALUATION);
+            KieBase candidate = container.newKieBase(conf);
+            // Drools silently drops back to one thread when the network cannot be partitioned
+            if (((InternalRuleBase) candidate).getRuleBaseConfiguration().isParallelEvaluation()) {
+                kieBase = candidate;
+                parallel = true;
+            } else {
+                sequentialReason = parallelEvaluationBlockers(candidate);
+                log.warn("ruleset {}: parallel evaluation not possible, building sequential KieBase ({})",
+                        ruleSet.getId(), sequentialReason);
+            }
+        }
+        // parallel evaluation already splits the network inside one KieBase
+        List<FactPartition> partitions = parallel ? List.of() : partitioner.partition(ruleSet.getId(), rules);
+        long estimatedBytes;
+        if (!partitions.isEmpty()) {
+            // the monolithic KieBase is only created on demand (CompiledRuleSet.getKieBase)
+            estimatedBytes = CompiledRuleSet.estimateRetainedBytes(partitions, written.sourceBytes());
+        } else {
+            if (kieBase == null) {
+                kieBase = container.getKieBase();
+            }
+            estimatedBytes = CompiledRuleSet.estimateRetainedBytes(kieBase, written.sourceBytes());
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        return new CompiledRuleSet(ruleSet.getId(), ruleSet.getVersion(), releaseId, container,
+                kieBase, written.resources(), buildMillis, estimatedBytes, parallel, sequentialReason, partitions,
+                Boolean.TRUE.equals(ruleSet.getDeterministic()));
+    }
+
+    /**
+     * Constructs Drools refuses under parallel evaluation: agenda groups, activation groups and queries.
+     */
+    private static String parallelEvaluationBlockers(KieBase kieBase) {
+        List<String> reasons = new ArrayList<>();
+        for (KiePackage pkg : kieBase.getKiePackages()) {
+            if (!pkg.getQueries().isEmpty()) {
+                reasons.add("package " + pkg.getName() + " declares queries");
+            }
+            for (Rule rule : pkg.getRules()) {
+                if (!(rule instanceof RuleImpl impl)) continue;
+                if (!impl.isMainAgendaGroup()) {
+                    reasons.add("rule " + impl.getName() + " uses agenda-group " + impl.getAgendaGroup());
+                } else if (impl.getActivationGroup() != null && !impl.getActivationGroup().isEmpty()) {
+                    reasons.add("rule " + impl.getName() + " uses activation-group " + impl.getActivationGroup());
+                }
+                if (reasons.size() >= 5) return String.join("; ", reasons) + "; ...";
+            }
+        }
+        return reasons.isEmpty() ? "the rete network cannot be partitioned" : String.join("; ", reasons);
+    }
+
+    private record Written(int resources, long sourceBytes) {}
+
+    private Written writeResources(KieServices kieServices, KieFileSystem kfs, List<RuleDefinition> rules) {
+        int written = 0;
+        long sourceBytes = 0;
+        for (RuleDefinition rule : rules) {
             if (rule.getRuleType() == RuleType.DRL && rule.getRuleContent() != null) {
-                kfs.write("src/main/resources/" + rule.getRuleName() + ".drl", rule.getRuleContent());
+                kfs.write(resourcePath(rule, ".drl"), rule.getRuleContent());
+                sourceBytes += rule.getRuleContent().length();
+
+            } else if (rule.getRuleType() == RuleType.DECISION_TABLE && rule.hasCurrentGeneratedDrl()) {
+                kfs.write(resourcePath(rule, ".drl"), rule.getGeneratedDrl());
+                sourceBytes += rule.getGeneratedDrl().length();
 
             } else if (rule.getRuleType() == RuleType.DECISION_TABLE && rule.getRuleFile() != null) {
+                // stored before upload-time conversion and not yet reached by DecisionTableBackfill
                 Resource res = kieServices.getResources()
                         .newInputStreamResource(new ByteArrayInputStream(rule.getRuleFile()));
                 res.setResourceType(ResourceType.DTABLE);
-                kfs.write("src/main/resources/" + rule.getRuleName() + ".xls", res);
+                kfs.write(resourcePath(rule, ".xls"), res);
+                sourceBytes += rule.getRuleFile().length;
 
-            } else if (rule.getRuleType() == RuleType.DMN && rule.getRuleFile() != null) {
+            } else if (rule.getRuleType() == RuleType.DMN && (rule.getRuleFile() != null || rule.getRuleContent() != null)) {
+                // uploads store DMN XML as text in ruleContent; older rows may carry it as bytes
+                byte[] dmn = rule.getRuleFile() != null ? rule.getRuleFile()
+                        : rule.getRuleContent().getBytes(StandardCharsets.UTF_8);
                 Resource res = kieServices.getResources()
-                        .newInputStreamResource(new ByteArrayInputStream(rule.getRuleFile()));
+                        .newInputStreamResource(new ByteArrayInputStream(dmn));
                 res.setResourceType(ResourceType.DMN);
-                kfs.write("src/main/resources/" + rule.getRuleName() + ".dmn", res);
+                kfs.write(resourcePath(rule, ".dmn"), res);
+                sourceBytes += dmn.length;
+            } else {
+                continue;
             }
+            written++;
         }
+        return new Written(written, sourceBytes);
+    }
 
-        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
-        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
-            throw new RuntimeException("Drools build errors: \n" + kieBuilder.getResults().toString());
+    /**
+     * Rule names are free text (often the uploaded file name), so keep them path-safe and unique.
+     */
+    private static String resourcePath(RuleDefinition rule, String extension) {
+        String name = rule.getRuleName() == null ? "rule" : rule.getRuleName();
+        if (name.toLowerCase().endsWith(extension)) {
+            name = name.substring(0, name.length() - extension.length());
         }
-
-        return kieServices.newKieContainer(
-                kieServices.getRepository().getDefaultReleaseId()
-        );
+        name = name.replaceAll("[^A-Za-z0-9_.-]", "_");
+        String prefix = rule.getId() == null ? "" : rule.getId() + "_";
+        return "src/main/resources/" + prefix + name + extension;
     }
 
     public <T> T evaluate(T fact) throws IOException {
@@ -94,4 +315,15 @@ public class RuleService {
 
         return fact;
     }
+
+    /**
+     * The rules of a ruleset do not compile.
+     */
+    public static class BuildFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BuildFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
@@ -0,0 +1,257 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.dto.RuleSummary;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.example.rulemanager.repository.RuleSetRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a whole ruleset as a ZIP: one entry per rule artifact, a manifest.json and, optionally,
+ * the compiled KieModule as a KJAR.
+ *
+ * Rules are loaded and written one at a time inside a read-only transaction and detached right
+ * after, so memory use is bounded by the largest single artifact, not by the ruleset. The archive
+ * is written straight to the response stream. The artifact entries can be fed back to
+ * POST /api/rulesets/{id}/import (manifest.json and the KJAR are skipped there).
+ */
+@Service
+public class RuleSetExportService {
+
+    private static final String KMODULE_XML = "META-INF/kmodule.xml";
+    private static final String DEFAULT_KMODULE = "<kmodule xmlns=\"http://www.drools.org/xsd/kmodule\"/>\n";
+    private static final byte[] OLE2_MAGIC =
+            {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    private final RuleSetRepository ruleSetRepository;
+    private final RuleRepository ruleRepository;
+    private final CompiledRuleSetCache compiledCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnly;
+    private final ObjectMapper objectMapper;
+
+    public RuleSetExportService(RuleSetRepository ruleSetRepository, RuleRepository ruleRepository,
+                                CompiledRuleSetCache compiledCache, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.ruleSetRepository = ruleSetRepository;
+        this.ruleRepository = ruleRepository;
+        this.compiledCache = compiledCache;
+        this.entityManager = entityManager;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resolve what {@link #write} needs before the response is committed, so a missing ruleset or a
+     * failed KJAR build still gets a proper status.
+     *
+     * @throws NoSuchElementException if the ruleset does not exist
+     */
+    public Export prepare(Long rulesetId, boolean includeKjar) {
+        RuleSet rs = ruleSetRepository.findById(rulesetId)
+                .orElseThrow(() -> new NoSuchElementException("ruleset not found: " + rulesetId));
+        InternalKieModule kjar = null;
+        if (includeKjar) {
+            CompiledRuleSet compiled = compiledCache.get(rulesetId);
+            KieModule module = KieServices.Factory.get().getRepository().getKieModule(compiled.getReleaseId());
+            if (!(module instanceof InternalKieModule internal)) {
+                throw new IllegalStateException("compiled module for ruleset " + rulesetId + " is not available");
+            }
+            kjar = internal;
+        }
+        return new Export(rs.getId(), rs.getName(), rs.getVersion(), kjar);
+    }
+
+    public String fileName(Export export) {
+        return safe(export.name()) + "-v" + export.version() + ".zip";
+    }
+
+    public void write(Export export, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        try {
+            readOnly.executeWithoutResult(status -> writeArtifacts(export, zip));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (export.kjar() != null) {
+            writeKjar(export, zip);
+        }
+        zip.finish();
+    }
+
+    private void writeArtifacts(Export export, ZipOutputStream zip) {
+        try {
+            RuleSet rs = ruleSetRepository.findById(export.rulesetId()).orElseThrow();
+            List<RuleSummary> summaries = ruleRepository.findSummariesByRuleSetId(export.rulesetId());
+
+            Set<String> used = new HashSet<>();
+            List<String> files = new ArrayList<>(summaries.size());
+            for (RuleSummary s : summaries) {
+                files.add(uniqueEntryName(s.getRuleName(), extension(s), used));
+            }
+
+            // manifest first: readers can plan the import before the artifacts arrive
+            zip.putNextEntry(new ZipEntry("manifest.json"));
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(new NonClosing(zip));
+            gen.writeStartObject();
+            gen.writeNumberField("rulesetId", rs.getId());
+            gen.writeStringField("name", rs.getName());
+            gen.writeStringField("description", rs.getDescription());
+            gen.writeNumberField("version", rs.getVersion() == null ? 0 : rs.getVersion());
+            gen.writeStringField("status", rs.getStatus());
+            if (export.kjar() != null) {
+                gen.writeStringField("kjar", kjarEntryName(export));
+                gen.writeStringField("releaseId", export.kjar().getReleaseId().toString());
+            }
+            gen.writeArrayFieldStart("rules");
+            for (int i = 0; i < summaries.size(); i++) {
+                RuleSummary s = summaries.get(i);
+                gen.writeStartObject();
+                gen.writeStringField("file", files.get(i));
+                gen.writeNumberField("id", s.getId());
+                gen.writeStringField("ruleName", s.getRuleName());
+                gen.writeStringField("ruleType", String.valueOf(s.getRuleType()));
+                gen.writeBooleanField("active", s.isActive());
+                gen.writeStringField("contentHash", s.getContentHash());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.close();
+            zip.closeEntry();
+
+            for (int i = 0; i < summaries.size(); i++) {
+                RuleDefinition rule = ruleRepository.findById(summaries.get(i).getId()).orElse(null);
+                if (rule == null) continue;
+                byte[] content = rule.getRuleFile() != null ? rule.getRuleFile()
+                        : rule.getRuleContent() != null ? rule.getRuleContent().getBytes(StandardCharsets.UTF_8) : null;
+                if (content != null) {
+                    zip.putNextEntry(new ZipEntry(files.get(i)));
+                    zip.write(content);
+                    zip.closeEntry();
+                }
+                entityManager.detach(rule);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The KJAR is a jar nested in the export, written file by file from the in-memory KieModule.
+     */
+    private void writeKjar(Export export, ZipOutputStream zip) throws IOException {
+        InternalKieModule module = export.kjar();
+        zip.putNextEntry(new ZipEntry(kjarEntryName(export)));
+        ZipOutputStream jar = new ZipOutputStream(new NonClosing(zip), StandardCharsets.UTF_8);
+        if (!module.getFileNames().contains(KMODULE_XML)) {
+            // RuleService builds without a kmodule.xml, i.e. one default KieBase; an empty one says the same
+            jar.putNextEntry(new ZipEntry(KMODULE_XML));
+            jar.write(DEFAULT_KMODULE.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+        }
+        for (String name : module.getFileNames()) {
+            byte[] bytes = module.getBytes(name);
+            if (bytes == null) continue; // directory
+            jar.putNextEntry(new ZipEntry(name));
+            jar.write(bytes);
+            jar.closeEntry();
+        }
+        jar.finish();
+        zip.closeEntry();
+    }
+
+    private static String kjarEntryName(Export export) {
+        return "kjar/" + export.kjar().getReleaseId().getArtifactId() + "-" + export.kjar().getReleaseId().getVersion() + ".jar";
+    }
+
+    /**
+     * Decision tables keep the format they were uploaded in: an .xls or .xlsx name says which, otherwise
+     * the stored bytes do (legacy .xls files are OLE2 compound documents, .xlsx files are ZIPs).
+     */
+    private String extension(RuleSummary summary) {
+        if (summary.getRuleType() == RuleType.DMN) return ".dmn";
+        if (summary.getRuleType() != RuleType.DECISION_TABLE) return ".drl";
+        String lower = summary.getRuleName() == null ? "" : summary.getRuleName().toLowerCase();
+        if (lower.endsWith(".xls")) return ".xls";
+        if (lower.endsWith(".xlsx")) return ".xlsx";
+        RuleDefinition rule = ruleRepository.findById(summary.getId()).orElse(null);
+        if (rule == null) return ".xlsx";
+        boolean xls = isOle2(rule.getRuleFile());
+        entityManager.detach(rule);
+        return xls ? ".xls" : ".xlsx";
+    }
+
+    private static boolean isOle2(byte[] content) {
+        if (content == null || content.length < OLE2_MAGIC.length) return false;
+        return Arrays.equals(content, 0, OLE2_MAGIC.length, OLE2_MAGIC, 0, OLE2_MAGIC.length);
+    }
+
+    /**
+     * Rule names become entry names (so a re-import keeps them): keep them relative, give them the
+     * artifact's extension and make duplicates unique.
+     */
+    private static String uniqueEntryName(String ruleName, String extension, Set<String> used) {
+        String name = ruleName == null || ruleName.isBlank() ? "rule" : ruleName.replace('\\', '/');
+        StringBuilder path = new StringBuilder();
+        for (String part : name.split("/")) {
+            if (part.isEmpty() || part.equals(".") || part.equals("..")) continue;
+            if (path.length() > 0) path.append('/');
+            path.append(part);
+        }
+        name = path.length() == 0 ? "rule" : path.toString();
+        if (!name.toLowerCase().endsWith(extension)) {
+            name = name + extension;
+        }
+        int dot = name.lastIndexOf('.');
+        String candidate = name;
+        for (int n = 2; !used.add(candidate.toLowerCase()); n++) {
+            candidate = name.substring(0, dot) + "-" + n + name.substring(dot);
+        }
+        return candidate;
+    }
+
+    private static String safe(String name) {
+        return name == null ? "ruleset" : name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    public record Export(Long rulesetId, String name, Integer version, InternalKieModule kjar) {}
+
+    /**
+     * Lets a nested writer (JSON generator, inner jar) finish without closing the outer ZIP.
+     */
+    private static final class NonClosing extends FilterOutputStream {
+        NonClosing(OutputStream out) { super(out); }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+
+        @Override
+        public void close() throws IOException { flush(); }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.example.rulemanager.repository.RuleSetRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.kie.api.KieServices;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Bulk import of rule artifacts (DRL, DMN, XLS/XLSX decision tables) into a ruleset, from any mix
+ * of plain files and ZIP archives.
+ *
+ * Archives are read entry by entry from the uploaded stream. Everything is stored in one
+ * transaction, flushed and detached every batch so the persistence context stays small, and the
+ * ruleset is compiled once at the end: any bad entry or build error rolls the whole import back.
+ */
+@Service
+public class RuleSetImportService {
+
+    private final RuleSetRepository ruleSetRepository;
+    private final RuleRepository ruleRepository;
+    private final RuleService ruleService;
+    private final ApplicationEventPublisher events;
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final int maxEntries;
+    private final long maxEntryBytes;
+
+    public RuleSetImportService(RuleSetRepository ruleSetRepository, RuleRepository ruleRepository,
+                                RuleService ruleService, ApplicationEventPublisher events, EntityManager entityManager,
+                                @Value("${rulemanager.import.batch-size:50}") int batchSize,
+                                @Value("${rulemanager.import.max-entries:5000}") int maxEntries,
+                                @Value("${rulemanager.import.max-entry-bytes:20971520}") long maxEntryBytes) {
+        this.ruleSetRepository = ruleSetRepository;
+        this.ruleRepository = ruleRepository;
+        this.ruleService = ruleService;
+        this.events = events;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.maxEntries = maxEntries;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Import {@code files} into the ruleset. With {@code replace} the existing rules are removed first.
+     *
+     * @throws NoSuchElementException if the ruleset does not exist
+     * @throws ImportFailedException  if any entry is invalid or the ruleset does not compile (nothing is stored)
+     */
+    @Transactional
+    public Map<String, Object> importFiles(Long rulesetId, List<MultipartFile> files, boolean replace) {
+        RuleSet rs = ruleSetRepository.findById(rulesetId)
+                .orElseThrow(() -> new NoSuchElementException("ruleset not found: " + rulesetId));
+
+        int removed = 0;
+        if (replace) {
+            removed = ruleRepository.deleteByRuleSetId(rulesetId);
+        }
+
+        Batch batch = new Batch(rs);
+        for (MultipartFile file : files) {
+            String name = file.getOriginalFilename() == null ? "unnamed" : file.getOriginalFilename();
+            try (InputStream in = file.getInputStream()) {
+                if (name.toLowerCase().endsWith(".zip")) {
+                    readArchive(name, in, batch);
+                } else {
+                    batch.add(name, in);
+                }
+            } catch (IOException ex) {
+                batch.errors.add(name + ": " + ex.getMessage());
+            }
+        }
+        if (!batch.errors.isEmpty()) {
+            throw new ImportFailedException("import rejected, nothing was stored", batch.errors);
+        }
+        if (batch.saved.isEmpty()) {
+            throw new ImportFailedException("no importable files (expected .drl, .dmn, .xls, .xlsx or a .zip of them)",
+                    batch.skipped);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // one build validates the whole ruleset as it will be evaluated
+        RuleSet current = ruleSetRepository.findById(rulesetId).orElseThrow();
+        CompiledRuleSet compiled;
+        try {
+            compiled = ruleService.compile(current);
+        } catch (RuntimeException ex) {
+            throw new ImportFailedException("ruleset does not compile, nothing was stored",
+                    List.of(ex.getMessage() != null ? ex.getMessage() : ex.toString()));
+        }
+        // the committed change invalidates cached builds; this one was only a check
+        KieServices.Factory.get().getRepository().removeKieModule(compiled.getReleaseId());
+
+        events.publishEvent(RuleChangeEvent.ruleset(RuleChangeType.RULESET_UPDATED, current.getId(), current.getVersion()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rulesetId", rulesetId);
+        report.put("imported", batch.saved.size());
+        report.put("removed", removed);
+        report.put("skipped", batch.skipped);
+        report.put("resources", compiled.getResourceCount());
+        report.put("buildMillis", compiled.getBuildMillis());
+        report.put("rules", batch.saved);
+        return report;
+    }
+
+    private void readArchive(String archiveName, InputStream in, Batch batch) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            String base = name.substring(name.lastIndexOf('/') + 1);
+            if (entry.isDirectory() || name.startsWith("__MACOSX/") || base.startsWith(".")) continue;
+            batch.add(name, zip);
+            if (batch.errors.size() > 100) {
+                batch.errors.add(archiveName + ": too many errors, stopped reading");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Import state: artifacts are saved as they are read and flushed/detached every batchSize rows.
+     */
+    private final class Batch {
+        private final Long rulesetId;
+        private RuleSet ruleSet;
+        private int pending;
+        private final List<Map<String, Object>> saved = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        Batch(RuleSet ruleSet) {
+            this.rulesetId = ruleSet.getId();
+            this.ruleSet = ruleSet;
+        }
+
+        void add(String name, InputStream in) throws IOException {
+            RuleType type = typeOf(name);
+            if (type == null) {
+                skipped.add(name);
+                return;
+            }
+            if (saved.size() + errors.size() >= maxEntries) {
+                throw new IOException("more than " + maxEntries + " files");
+            }
+            byte[] bytes = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxEntryBytes + 1));
+            if (bytes.length > maxEntryBytes) {
+                errors.add(name + ": larger than " + maxEntryBytes + " bytes");
+                return;
+            }
+
+            RuleDefinition rd = new RuleDefinition();
+            rd.setRuleName(name);
+            rd.setRuleType(type);
+            rd.setActive(true);
+            if (type == RuleType.DECISION_TABLE) {
+                rd.setRuleFile(bytes);
+            } else {
+                rd.setRuleContent(new String(bytes, StandardCharsets.UTF_8));
+            }
+            rd.setRuleSet(ruleSet);
+            try {
+                ruleService.prepareArtifact(rd);
+            } catch (IllegalArgumentException ex) {
+                errors.add(name + ": " + ex.getMessage());
+                return;
+            }
+            if (!errors.isEmpty()) return; // the import is lost anyway; only keep validating
+
+            RuleDefinition stored = ruleRepository.save(rd);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", stored.getId());
+            m.put("ruleName", stored.getRuleName());
+            m.put("ruleType", stored.getRuleType());
+            saved.add(m);
+
+            if (++pending >= batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                ruleSet = entityManager.getReference(RuleSet.class, rulesetId);
+                pending = 0;
+            }
+        }
+    }
+
+    private static RuleType typeOf(String name) {
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".drl")) return RuleType.DRL;
+        if (lower.endsWith(".dmn")) return RuleType.DMN;
+        if (lower.endsWith(".xls") || lower.endsWith(".xlsx")) return RuleType.DECISION_TABLE;
+        return null;
+    }
+
+    /**
+     * Import rejected; the transaction is rolled back and {@link #getProblems()} says why.
+     */
+    public static class ImportFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> problems;
+
+        public ImportFailedException(String message, List<String> problems) {
+            super(message);
+            this.problems = List.copyOf(problems);
+        }
+
+        public List<String> getProblems() { return problems; }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleSetVersionEntry;
+import com.example.rulemanager.repository.RuleSetVersionEntryRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps a per-version manifest (rule id + content hash) of published rulesets and
+ * computes the delta between a published version and the current rules.
+ */
+@Service
+public class RuleSetVersionService {
+
+    private final RuleSetVersionEntryRepository entryRepository;
+
+    public RuleSetVersionService(RuleSetVersionEntryRepository entryRepository) {
+        this.entryRepository = entryRepository;
+    }
+
+    /**
+     * Record the manifest of {@code rules} as ruleset version {@code rs.getVersion()}.
+     * Must run inside the publishing transaction.
+     */
+    public void snapshot(RuleSet rs, List<RuleDefinition> rules) {
+        entryRepository.deleteByRulesetIdAndVersion(rs.getId(), rs.getVersion());
+        List<RuleSetVersionEntry> entries = new ArrayList<>(rules.size());
+        for (RuleDefinition r : rules) {
+            RuleSetVersionEntry e = new RuleSetVersionEntry();
+            e.setRulesetId(rs.getId());
+            e.setVersion(rs.getVersion());
+            e.setRuleId(r.getId());
+            e.setRuleName(r.getRuleName());
+            e.setRuleType(r.getRuleType());
+            e.setActive(r.isActive());
+            e.setContentHash(hashOf(r));
+            entries.add(e);
+        }
+        entryRepository.saveAll(entries);
+    }
+
+    public boolean hasSnapshot(Long rulesetId, Integer version) {
+        return entryRepository.existsByRulesetIdAndVersion(rulesetId, version);
+    }
+
+    /**
+     * True when {@code current} is exactly what was published as {@code version}: a delta computed
+     * from the current rules then ends at that published version. False for edits made since
+     * publishing, or when the version has no manifest.
+     */
+    public boolean matchesSnapshot(Long rulesetId, Integer version, List<RuleDefinition> current) {
+        return version != null && hasSnapshot(rulesetId, version) && diff(rulesetId, version, current).isEmpty();
+    }
+
+    /**
+     * Compare the manifest of a published version with the current rules, which may include edits
+     * not published yet.
+     * Rules are matched by id; a rule counts as modified when its content hash, name, type or active flag changed.
+     */
+    public Delta diff(Long rulesetId, Integer sinceVersion, List<RuleDefinition> current) {
+        Map<Long, RuleSetVersionEntry> previous = new HashMap<>();
+        for (RuleSetVersionEntry e : entryRepository.findByRulesetIdAndVersion(rulesetId, sinceVersion)) {
+            previous.put(e.getRuleId(), e);
+        }
+
+        List<RuleDefinition> added = new ArrayList<>();
+        List<RuleDefinition> modified = new ArrayList<>();
+        for (RuleDefinition r : current) {
+            RuleSetVersionEntry before = previous.remove(r.getId());
+            if (before == null) {
+                added.add(r);
+            } else if (!Objects.equals(before.getContentHash(), hashOf(r))
+                    || !Objects.equals(before.getRuleName(), r.getRuleName())
+                    || before.getRuleType() != r.getRuleType()
+                    || before.isActive() != r.isActive()) {
+                modified.add(r);
+            }
+        }
+        return new Delta(added, modified, new ArrayList<>(previous.values()));
+    }
+
+    /** Rows written before content hashes existed have a null hash column; compute those on the fly. */
+    public static String hashOf(RuleDefinition r) {
+        return r.getContentHash() != null ? r.getContentHash() : r.computeContentHash();
+    }
+
+    public record Delta(List<RuleDefinition> added,
+                        List<RuleDefinition> modified,
+                        List<RuleSetVersionEntry> removed) {
+
+        public boolean isEmpty() {
+            return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+        }
+    }
+}
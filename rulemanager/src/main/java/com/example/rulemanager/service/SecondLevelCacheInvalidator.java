@@ -0,0 +1,48 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.model.ObjectRulesetMapping;
+import com.example.rulemanager.model.RuleSet;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the Hibernate second-level and query caches in step with writes made on other nodes.
+ *
+ * Local writes go through Hibernate, which updates the entity regions and invalidates query
+ * results itself. Writes from other nodes arrive through the change log; for those the affected
+ * entries and all cached query results are dropped, so reads are stale for at most one poll interval.
+ */
+@Service
+public class SecondLevelCacheInvalidator {
+
+    private final Cache cache;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        if (!committed.isRemote()) return;
+        RuleChangeEvent change = committed.getChange();
+        switch (change.getType()) {
+            case RULESET_PUBLISHED, RULESET_UPDATED -> evictRuleSet(change.getRulesetId());
+            case RULESET_DELETED -> {
+                evictRuleSet(change.getRulesetId());
+                cache.evictEntityData(ObjectRulesetMapping.class);
+            }
+            case MAPPING_CHANGED -> cache.evictEntityData(ObjectRulesetMapping.class);
+            case RULE_SAVED, RULE_DELETED -> { /* rule metadata is only cached as query results */ }
+        }
+        cache.evictQueryRegions();
+    }
+
+    private void evictRuleSet(Long rulesetId) {
+        if (rulesetId != null) cache.evictEntityData(RuleSet.class, rulesetId);
+    }
+}
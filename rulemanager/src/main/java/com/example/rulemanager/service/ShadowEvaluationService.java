@@ -0,0 +1,274 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.repository.RuleSetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Shadow evaluation: a sampled fraction of the live evaluations of a ruleset is replayed, after the live
+ * response is computed, against a DRAFT ruleset on the bounded shadow pool.
+ *
+ * Each replay is compared with the live outcome: rules fired (as a set, firing order is not compared)
+ * and resulting facts. Live outcomes served from the result cache are replayed and compared too, but
+ * only evaluations that ran the engine feed the {@code rulemanager.shadow.evaluation} timer (tags
+ * ruleset and variant=live|draft, client-side percentiles), so both latency sides cover the same inputs. Shadows are held in memory
+ * on the node that evaluates; replays that do not fit the pool queue are dropped and counted.
+ */
+@Service
+public class ShadowEvaluationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowEvaluationService.class);
+
+    private static final int RECENT_MISMATCHES = 20;
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final CompiledRuleSetCache cache;
+    private final RuleSetRepository ruleSetRepository;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+    private final Map<Long, Shadow> shadows = new ConcurrentHashMap<>();
+
+    public ShadowEvaluationService(CompiledRuleSetCache cache, RuleSetRepository ruleSetRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Qualifier("shadowExecutor") ExecutorService executor) {
+        this.cache = cache;
+        this.ruleSetRepository = ruleSetRepository;
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+    }
+
+    /**
+     * Shadow {@code liveRulesetId} with {@code draftRulesetId}, replacing any previous shadow of it.
+     *
+     * @throws NoSuchElementException   if either ruleset does not exist
+     * @throws IllegalArgumentException if the draft is not in DRAFT status, is the live ruleset itself,
+     *                                  or the sample rate is outside (0, 1]
+     */
+    public Map<String, Object> start(Long liveRulesetId, Long draftRulesetId, double sampleRate) {
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sampleRate must be in (0, 1]");
+        }
+        if (liveRulesetId.equals(draftRulesetId)) {
+            throw new IllegalArgumentException("a ruleset cannot shadow itself");
+        }
+        ruleSetRepository.findById(liveRulesetId)
+                .orElseThrow(() -> new NoSuchElementException("ruleset not found: " + liveRulesetId));
+        RuleSet draft = ruleSetRepository.findById(draftRulesetId)
+                .orElseThrow(() -> new NoSuchElementException("ruleset not found: " + draftRulesetId));
+        if (!"DRAFT".equals(draft.getStatus())) {
+            throw new IllegalArgumentException("shadow ruleset " + draftRulesetId + " is not a DRAFT");
+        }
+
+        // drop the previous timers first, or the new shadow would register onto them
+        stop(liveRulesetId);
+        Shadow shadow = new Shadow(liveRulesetId, draftRulesetId, sampleRate);
+        shadows.put(liveRulesetId, shadow);
+        log.info("shadowing ruleset {} with draft {} at sample rate {}", liveRulesetId, draftRulesetId, sampleRate);
+        return shadow.report();
+    }
+
+    public boolean stop(Long liveRulesetId) {
+        Shadow shadow = shadows.remove(liveRulesetId);
+        if (shadow == null) return false;
+        shadow.close();
+        return true;
+    }
+
+    /**
+     * Side-by-side report of a running shadow.
+     *
+     * @throws NoSuchElementException if the ruleset is not being shadowed
+     */
+    public Map<String, Object> report(Long liveRulesetId) {
+        Shadow shadow = shadows.get(liveRulesetId);
+        if (shadow == null) throw new NoSuchElementException("ruleset " + liveRulesetId + " has no shadow");
+        return shadow.report();
+    }
+
+    /**
+     * The shadow to replay this evaluation on, or null when the ruleset has none or the evaluation
+     * is not sampled. Decided before the evaluation, so callers only keep the input when needed.
+     */
+    Shadow sample(Long liveRulesetId) {
+        Shadow shadow = shadows.get(liveRulesetId);
+        if (shadow == null || ThreadLocalRandom.current().nextDouble() >= shadow.sampleRate) return null;
+        return shadow;
+    }
+
+    /**
+     * Record the live outcome and queue the replay of {@code input} on the draft. {@code evaluator}
+     * evaluates the input against a compiled ruleset the same way the live evaluation did.
+     * {@code cached} says the live outcome came from the result cache, so its time is not engine time.
+     */
+    void replay(Shadow shadow, JsonNode input, FactEvaluationService.Evaluated live, boolean cached,
+                Function<CompiledRuleSet, FactEvaluationService.Evaluated> evaluator) {
+        shadow.sampled.incrementAndGet();
+        try {
+            executor.execute(() -> shadow.compare(input, live, cached, evaluator));
+        } catch (RejectedExecutionException ex) {
+            shadow.dropped.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onChange(RuleChangeCommittedEvent committed) {
+        if (committed.getChange().getType() != RuleChangeType.RULESET_DELETED) return;
+        Long rulesetId = committed.getChange().getRulesetId();
+        shadows.values().removeIf(s -> {
+            boolean gone = s.liveRulesetId.equals(rulesetId) || s.draftRulesetId.equals(rulesetId);
+            if (gone) s.close();
+            return gone;
+        });
+    }
+
+    /**
+     * One live/draft pairing and its running comparison.
+     */
+    final class Shadow {
+
+        private final Long liveRulesetId;
+        private final Long draftRulesetId;
+        private final double sampleRate;
+        private final Instant startedAt = Instant.now();
+        private final Timer liveTimer;
+        private final Timer draftTimer;
+        private final AtomicLong sampled = new AtomicLong();
+        private final AtomicLong compared = new AtomicLong();
+        private final AtomicLong comparedCached = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong firedRulesDiffer = new AtomicLong();
+        private final AtomicLong factsDiffer = new AtomicLong();
+        private final Deque<Map<String, Object>> mismatches = new ArrayDeque<>();
+        private volatile String lastError;
+
+        private Shadow(Long liveRulesetId, Long draftRulesetId, double sampleRate) {
+            this.liveRulesetId = liveRulesetId;
+            this.draftRulesetId = draftRulesetId;
+            this.sampleRate = sampleRate;
+            this.liveTimer = timer("live");
+            this.draftTimer = timer("draft");
+        }
+
+        private Timer timer(String variant) {
+            return Timer.builder("rulemanager.shadow.evaluation")
+                    .description("Engine time of live evaluations and their shadow replays")
+                    .tag("ruleset", String.valueOf(liveRulesetId))
+                    .tag("variant", variant)
+                    .publishPercentiles(PERCENTILES)
+                    .register(meterRegistry);
+        }
+
+        private void compare(JsonNode input, FactEvaluationService.Evaluated live, boolean cached,
+                             Function<CompiledRuleSet, FactEvaluationService.Evaluated> evaluator) {
+            FactEvaluationService.Evaluated draft;
+            try {
+                draft = evaluator.apply(cache.get(draftRulesetId));
+            } catch (RuntimeException ex) {
+                errors.incrementAndGet();
+                lastError = ex.getMessage();
+                return;
+            }
+            if (cached) {
+                comparedCached.incrementAndGet();
+            } else {
+                liveTimer.record(live.micros(), TimeUnit.MICROSECONDS);
+                draftTimer.record(draft.micros(), TimeUnit.MICROSECONDS);
+            }
+            compared.incrementAndGet();
+
+            List<String> liveFired = live.result().firedRules().stream().sorted().toList();
+            List<String> draftFired = draft.result().firedRules().stream().sorted().toList();
+            boolean firedDiffer = !liveFired.equals(draftFired);
+            boolean outputDiffer = !live.result().facts().equals(draft.result().facts());
+            if (firedDiffer) firedRulesDiffer.incrementAndGet();
+            if (outputDiffer) factsDiffer.incrementAndGet();
+            if (firedDiffer || outputDiffer) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("at", Instant.now());
+                m.put("input", input);
+                m.put("liveFiredRules", live.result().firedRules());
+                m.put("draftFiredRules", draft.result().firedRules());
+                m.put("liveFacts", live.result().facts());
+                m.put("draftFacts", draft.result().facts());
+                synchronized (mismatches) {
+                    mismatches.addFirst(m);
+                    if (mismatches.size() > RECENT_MISMATCHES) mismatches.removeLast();
+                }
+            }
+        }
+
+        private Map<String, Object> report() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("liveRulesetId", liveRulesetId);
+            report.put("draftRulesetId", draftRulesetId);
+            report.put("sampleRate", sampleRate);
+            report.put("startedAt", startedAt);
+            report.put("sampled", sampled.get());
+            report.put("compared", compared.get());
+            report.put("comparedFromCache", comparedCached.get());
+            report.put("dropped", dropped.get());
+            report.put("errors", errors.get());
+            if (lastError != null) report.put("lastError", lastError);
+            report.put("firedRulesDiffer", firedRulesDiffer.get());
+            report.put("factsDiffer", factsDiffer.get());
+
+            Map<String, Object> liveLatency = latency(liveTimer);
+            Map<String, Object> draftLatency = latency(draftTimer);
+            report.put("liveLatencyMicros", liveLatency);
+            report.put("draftLatencyMicros", draftLatency);
+            double liveMean = (double) liveLatency.get("mean");
+            if (liveMean > 0) report.put("draftToLiveMeanRatio", (double) draftLatency.get("mean") / liveMean);
+
+            synchronized (mismatches) {
+                report.put("recentMismatches", new ArrayList<>(mismatches));
+            }
+            return report;
+        }
+
+        private void close() {
+            meterRegistry.remove(liveTimer);
+            meterRegistry.remove(draftTimer);
+        }
+    }
+
+    /** Percentiles and max cover the timer's recent window; count and mean everything recorded. */
+    private static Map<String, Object> latency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", snapshot.count());
+        m.put("mean", snapshot.mean(TimeUnit.MICROSECONDS));
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            m.put("p" + Math.round(p.percentile() * 100), p.value(TimeUnit.MICROSECONDS));
+        }
+        m.put("max", snapshot.max(TimeUnit.MICROSECONDS));
+        return m;
+    }
+}
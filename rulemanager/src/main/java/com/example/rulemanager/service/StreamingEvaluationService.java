@@ -0,0 +1,123 @@
+package com.example.rulemanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * NDJSON in, NDJSON out: records are read, evaluated and written in fixed-size chunks, so memory
+ * use depends on the chunk size and not on the size of the input.
+ */
+@Service
+public class StreamingEvaluationService {
+
+    private final FactEvaluationService factEvaluationService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+
+    public StreamingEvaluationService(FactEvaluationService factEvaluationService,
+                                      ObjectMapper objectMapper,
+                                      @Qualifier("evaluationExecutor") ExecutorService executor) {
+        this.factEvaluationService = factEvaluationService;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+    }
+
+    /**
+     * Each input line is one record (a JSON object, optionally with "@type"), evaluated on its own
+     * session; blank lines are skipped. Output lines carry the zero-based record index and are written
+     * in input order, also when a chunk is evaluated in parallel. A line that is not valid JSON or whose
+     * evaluation fails gets { "index", "error" } and the stream goes on with the next line.
+     */
+    public void evaluate(CompiledRuleSet compiled, InputStream in, OutputStream out,
+                         int chunkSize, boolean parallel) throws IOException {
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are terminated explicitly; no extra separator between root values
+            gen.setRootValueSeparator(null);
+
+            long index = 0;
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) continue;
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    index = writeChunk(compiled, chunk, index, parallel, gen);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(compiled, chunk, index, parallel, gen);
+            }
+        }
+    }
+
+    private long writeChunk(CompiledRuleSet compiled, List<String> chunk, long firstIndex,
+                            boolean parallel, JsonGenerator gen) throws IOException {
+        List<ObjectNode> results = new ArrayList<>(chunk.size());
+        if (parallel && chunk.size() > 1) {
+            List<CompletableFuture<ObjectNode>> futures = new ArrayList<>(chunk.size());
+            for (String line : chunk) {
+                futures.add(CompletableFuture.supplyAsync(() -> evaluateLine(compiled, line), executor));
+            }
+            for (CompletableFuture<ObjectNode> f : futures) {
+                try {
+                    results.add(f.join());
+                } catch (CompletionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    results.add(error(cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+                }
+            }
+        } else {
+            for (String line : chunk) {
+                results.add(evaluateLine(compiled, line));
+            }
+        }
+
+        long index = firstIndex;
+        for (ObjectNode result : results) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("index", index++);
+            line.setAll(result);
+            gen.writeTree(line);
+            gen.writeRaw('\n');
+        }
+        // push each finished chunk to the client instead of waiting for the whole input
+        gen.flush();
+        return index;
+    }
+
+    private ObjectNode evaluateLine(CompiledRuleSet compiled, String line) {
+        JsonNode record;
+        try {
+            record = objectMapper.readTree(line);
+        } catch (JsonProcessingException ex) {
+            return error("malformed JSON: " + ex.getOriginalMessage());
+        }
+        return factEvaluationService.evaluateRecord(compiled, record);
+    }
+
+    private ObjectNode error(String message) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("error", message);
+        return result;
+    }
+}
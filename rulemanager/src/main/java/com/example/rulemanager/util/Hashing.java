@@ -0,0 +1,28 @@
+package com.example.rulemanager.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hashing used to identify rule artifacts independently of their database ids.
+ */
+public final class Hashing {
+
+    private Hashing() {}
+
+    public static String sha256(byte[] data) {
+        if (data == null) return null;
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String sha256(String text) {
+        return text == null ? null : sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
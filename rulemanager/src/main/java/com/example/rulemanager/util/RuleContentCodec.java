@@ -0,0 +1,128 @@
+package com.example.rulemanager.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * At-rest encoding for rule content columns.
+ *
+ * Encoded values carry a header so they can be told apart from rows written before compression
+ * existed, which are returned unchanged:
+ * <ul>
+ *   <li>binary: {@code 00 'R' 'M' 'Z'} + mode byte + payload</li>
+ *   <li>text:   {@code \u0001RMZ} + mode char + ':' + payload (base64 when deflated)</li>
+ * </ul>
+ * Mode 0 stores the value as is (small or incompressible values), mode 1 is raw DEFLATE.
+ */
+public final class RuleContentCodec {
+
+    private static final byte[] MAGIC = {0x00, 'R', 'M', 'Z'};
+    private static final String TEXT_MAGIC = "\u0001RMZ";
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+
+    // below this size deflate rarely pays for its header
+    private static final int MIN_COMPRESS_BYTES = 256;
+
+    private RuleContentCodec() {}
+
+    public static byte[] encode(byte[] raw) {
+        if (raw == null) return null;
+        byte[] deflated = raw.length >= MIN_COMPRESS_BYTES ? deflate(raw) : null;
+        boolean useDeflated = deflated != null && deflated.length < raw.length;
+        byte[] payload = useDeflated ? deflated : raw;
+
+        byte[] out = new byte[MAGIC.length + 1 + payload.length];
+        System.arraycopy(MAGIC, 0, out, 0, MAGIC.length);
+        out[MAGIC.length] = useDeflated ? DEFLATED : STORED;
+        System.arraycopy(payload, 0, out, MAGIC.length + 1, payload.length);
+        return out;
+    }
+
+    public static byte[] decode(byte[] stored) {
+        if (stored == null || !isEncoded(stored)) return stored; // legacy row
+        byte[] payload = Arrays.copyOfRange(stored, MAGIC.length + 1, stored.length);
+        return stored[MAGIC.length] == DEFLATED ? inflate(payload) : payload;
+    }
+
+    public static boolean isEncoded(byte[] stored) {
+        return stored != null && stored.length > MAGIC.length
+                && Arrays.equals(stored, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    public static String encode(String raw) {
+        if (raw == null) return null;
+        byte[] utf8 = raw.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_COMPRESS_BYTES) {
+            String deflated = Base64.getEncoder().encodeToString(deflate(utf8));
+            if (deflated.length() < raw.length()) {
+                return TEXT_MAGIC + DEFLATED + ":" + deflated;
+            }
+        }
+        return TEXT_MAGIC + STORED + ":" + raw;
+    }
+
+    public static String decode(String stored) {
+        if (stored == null || !isEncoded(stored)) return stored; // legacy row
+        String payload = stored.substring(TEXT_MAGIC.length() + 2);
+        if (stored.charAt(TEXT_MAGIC.length()) == '0' + DEFLATED) {
+            return new String(inflate(Base64.getDecoder().decode(payload)), StandardCharsets.UTF_8);
+        }
+        return payload;
+    }
+
+    public static boolean isEncoded(String stored) {
+        return stored != null && stored.length() >= TEXT_MAGIC.length() + 2 && stored.startsWith(TEXT_MAGIC);
+    }
+
+    public static String textMagic() {
+        return TEXT_MAGIC;
+    }
+
+    public static byte[] binaryMagic() {
+        return MAGIC.clone();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(deflated);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length * 4);
+            byte[] buf = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("truncated compressed rule content");
+                }
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt compressed rule content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
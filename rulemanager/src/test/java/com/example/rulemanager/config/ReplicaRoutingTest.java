@@ -0,0 +1,136 @@
+package com.example.rulemanager.config;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The routing set up by {@link DataSourceRoutingConfig}, against two separate H2 databases.
+ */
+class ReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private final DriverManagerDataSource primary =
+            new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+    private final DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+    private final ReplicaHealthMonitor monitor =
+            new ReplicaHealthMonitor(replica, "SELECT seconds FROM replication_lag", 5, 2);
+    private final ReplicaFallbackDataSource readOnly = new ReplicaFallbackDataSource(primary, replica, monitor);
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate readWriteTx;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(primary).execute("CREATE TABLE node (name VARCHAR(16))");
+        new JdbcTemplate(primary).update("INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE node (name VARCHAR(16))");
+        new JdbcTemplate(replica).update("INSERT INTO node VALUES ('replica')");
+        new JdbcTemplate(replica).execute("CREATE TABLE replication_lag (seconds BIGINT)");
+        new JdbcTemplate(replica).update("INSERT INTO replication_lag VALUES (0)");
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        jdbc = new JdbcTemplate(proxy);
+        DataSourceTransactionManager transactions = new DataSourceTransactionManager(proxy);
+        readOnlyTx = new TransactionTemplate(transactions);
+        readOnlyTx.setReadOnly(true);
+        readWriteTx = new TransactionTemplate(transactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.setUrl(REPLICA_URL);
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheHealthyReplica() {
+        monitor.probe();
+
+        assertThat(monitor.isUp()).isTrue();
+        assertThat(node(readOnlyTx)).isEqualTo("replica");
+        assertThat(node(readWriteTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void everythingGoesToThePrimaryBeforeTheFirstProbe() {
+        assertThat(node(readOnlyTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void aLaggingReplicaIsSkipped() {
+        new JdbcTemplate(replica).update("UPDATE replication_lag SET seconds = 30");
+        monitor.probe();
+
+        assertThat(monitor.isUp()).isFalse();
+        assertThat(monitor.getLagSeconds()).isEqualTo(30);
+        assertThat(node(readOnlyTx)).isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE replication_lag SET seconds = 1");
+        monitor.probe();
+
+        assertThat(node(readOnlyTx)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsStayOnThePrimaryAfterALocalWrite() {
+        monitor.probe();
+        RuleChangeEvent change = RuleChangeEvent.ruleset(RuleChangeType.RULESET_UPDATED, 1L, 2);
+
+        monitor.onChange(new RuleChangeCommittedEvent(change, true));
+        assertThat(node(readOnlyTx)).isEqualTo("replica");
+
+        monitor.onChange(new RuleChangeCommittedEvent(change, false));
+        assertThat(node(readOnlyTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void aReplicaRefusingConnectionsFallsBackAndIsMarkedDown() {
+        monitor.probe();
+        // INIT runs on every connect, so each new connection fails
+        replica.setUrl(REPLICA_URL + ";INIT=FAIL");
+
+        assertThat(node(readOnlyTx)).isEqualTo("primary");
+        assertThat(monitor.isUp()).isFalse();
+    }
+
+    @Test
+    void explicitCredentialsAreRoutedTheSameWay() throws SQLException {
+        assertThat(node(readOnly.getConnection("sa", ""))).isEqualTo("primary");
+
+        monitor.probe();
+
+        assertThat(node(readOnly.getConnection("sa", ""))).isEqualTo("replica");
+    }
+
+    private String node(TransactionTemplate tx) {
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static String node(Connection connection) throws SQLException {
+        try (Connection con = connection; Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
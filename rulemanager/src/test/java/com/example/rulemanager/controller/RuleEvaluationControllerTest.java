@@ -0,0 +1,50 @@
+package com.example.rulemanager.controller;
+
+import com.example.rulemanager.service.CompiledRuleSetCache;
+import com.example.rulemanager.service.DmnEvaluationService;
+import com.example.rulemanager.service.FactEvaluationService;
+import com.example.rulemanager.service.RuleService;
+import com.example.rulemanager.service.ShadowEvaluationService;
+import com.example.rulemanager.service.StreamingEvaluationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleEvaluationControllerTest {
+
+    private static final RuleService.BuildFailedException BROKEN =
+            new RuleService.BuildFailedException("Drools build errors for ruleset 1: unknown fact type", null);
+
+    private final FactEvaluationService facts = mock(FactEvaluationService.class);
+    private final CompiledRuleSetCache cache = mock(CompiledRuleSetCache.class);
+    private final RuleEvaluationController controller = new RuleEvaluationController(mock(DmnEvaluationService.class),
+            facts, mock(StreamingEvaluationService.class), mock(ShadowEvaluationService.class), cache, 500);
+
+    @Test
+    void aRulesetThatDoesNotBuildIsUnprocessable() throws Exception {
+        when(facts.evaluateJson(eq(1L), any(), any(), any(InputStream.class))).thenThrow(BROKEN);
+
+        ResponseEntity<?> response = controller.evaluate(1L, null, null, new ByteArrayInputStream(new byte[0]));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(422);
+        assertThat(response.getBody()).isEqualTo(BROKEN.getMessage());
+    }
+
+    @Test
+    void aStreamAgainstARulesetThatDoesNotBuildIsUnprocessable() {
+        when(cache.get(1L)).thenThrow(BROKEN);
+
+        ResponseEntity<?> response = controller.evaluateStream(1L, null, false, new ByteArrayInputStream(new byte[0]));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(422);
+        assertThat(response.getBody()).isEqualTo(BROKEN.getMessage());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.rulemanager.controller;
+
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.example.rulemanager.repository.RuleSetRepository;
+import com.example.rulemanager.service.DecisionTableCompiler;
+import com.example.rulemanager.service.RulePartitioner;
+import com.example.rulemanager.service.RuleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.ui.ExtendedModelMap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuleSetFileControllerTest {
+
+    private static final String DRL = "rule \"old\" when then end";
+
+    private final RuleRepository rules = mock(RuleRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final RuleSetFileController controller = new RuleSetFileController(mock(RuleSetRepository.class), rules,
+            events, new RuleService(rules, events, new DecisionTableCompiler(), new RulePartitioner(false)));
+
+    private RuleDefinition stored;
+
+    @BeforeEach
+    void storeRule() {
+        stored = new RuleDefinition();
+        stored.setId(7L);
+        stored.setRuleName("old.drl");
+        stored.setRuleType(RuleType.DRL);
+        stored.setRuleContent(DRL);
+        when(rules.findById(7L)).thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    void aRejectedSpreadsheetLeavesTheStoredRuleUnchanged() {
+        MockMultipartFile broken = new MockMultipartFile("file", "table.xlsx", null,
+                "not a spreadsheet".getBytes(StandardCharsets.UTF_8));
+        ExtendedModelMap model = new ExtendedModelMap();
+
+        String view = controller.replaceFile(1L, 7L, broken, model);
+
+        assertThat(view).isEqualTo("redirect:/rulesets/1/files/7/edit");
+        assertThat(model.getAttribute("error")).asString().startsWith("Replace failed: ");
+        assertThat(stored.getRuleName()).isEqualTo("old.drl");
+        assertThat(stored.getRuleType()).isEqualTo(RuleType.DRL);
+        assertThat(stored.getRuleContent()).isEqualTo(DRL);
+        assertThat(stored.getRuleFile()).isNull();
+        assertThat(stored.getGeneratedDrl()).isNull();
+        verify(rules, never()).save(any());
+        verify(events, never()).publishEvent(any(RuleChangeEvent.class));
+    }
+
+    @Test
+    void anAcceptedFileReplacesTheRule() {
+        MockMultipartFile drl = new MockMultipartFile("file", "new.drl", null,
+                "rule \"new\" when then end".getBytes(StandardCharsets.UTF_8));
+
+        String view = controller.replaceFile(1L, 7L, drl, new ExtendedModelMap());
+
+        assertThat(view).isEqualTo("redirect:/rulesets/1/files-ui");
+        assertThat(stored.getRuleName()).isEqualTo("new.drl");
+        assertThat(stored.getRuleContent()).isEqualTo("rule \"new\" when then end");
+        verify(rules).save(stored);
+        verify(events).publishEvent(any(RuleChangeEvent.class));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.rulemanager.jfr;
+
+import com.example.rulemanager.model.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactLoadEventTest {
+
+    @Test
+    void textIsCountedInUtf8Bytes() {
+        for (String text : List.of("", "rule \"r\" when then end", "Größe > 5 €", "emoji 😀 end",
+                "lone \uD83D surrogate", "trailing \uDE00")) {
+            assertThat(ArtifactLoadEvent.utf8Length(text)).as(text)
+                    .isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+        }
+        assertThat(ArtifactLoadEvent.utf8Length(null)).isZero();
+    }
+
+    @Test
+    void contentBytesAddsTextAndFiles() {
+        RuleDefinition drl = new RuleDefinition();
+        drl.setRuleContent("Größe");
+        RuleDefinition table = new RuleDefinition();
+        table.setRuleFile(new byte[100]);
+        table.setGeneratedDrl("€");
+
+        assertThat(ArtifactLoadEvent.contentBytes(List.of(drl, table))).isEqualTo(7 + 100 + 3);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.converter.CompressedBytesConverter;
+import com.example.rulemanager.model.converter.CompressedTextConverter;
+import com.example.rulemanager.util.RuleContentCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCompressionMigrationTest {
+
+    private static final String DRL = "rule \"r\" when $m : Map(this[\"amount\"] > 100) then end\n".repeat(20);
+    private static final byte[] XLS = new byte[4096];
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:compression;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final CompressedTextConverter text = new CompressedTextConverter();
+    private final CompressedBytesConverter bytes = new CompressedBytesConverter();
+
+    @BeforeEach
+    void createTables() {
+        jdbc.execute("CREATE TABLE rule_definition (id BIGINT PRIMARY KEY, rule_content CLOB, rule_file BLOB, "
+                + "generated_drl CLOB)");
+        jdbc.execute("CREATE TABLE ruleset_file (id BIGINT PRIMARY KEY, content CLOB, content_bytes BLOB)");
+
+        jdbc.update("INSERT INTO rule_definition VALUES (?, ?, ?, ?)", 1, DRL, null, null);
+        jdbc.update("INSERT INTO rule_definition VALUES (?, ?, ?, ?)", 2, null, XLS, DRL);
+        jdbc.update("INSERT INTO rule_definition VALUES (?, ?, ?, ?)", 3, "", new byte[0], null);
+        // written through JPA after compression was introduced
+        jdbc.update("INSERT INTO rule_definition VALUES (?, ?, ?, ?)", 4,
+                text.convertToDatabaseColumn("rule \"new\" when then end"), null, null);
+        jdbc.update("INSERT INTO ruleset_file VALUES (?, ?, ?)", 1, DRL, DRL.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbc.execute("DROP TABLE rule_definition");
+        jdbc.execute("DROP TABLE ruleset_file");
+    }
+
+    @Test
+    void legacyRowsAreEncodedAndReadBackUnchanged() {
+        new ContentCompressionMigration(jdbc, true, 2).migrateAll();
+
+        Map<String, Object> legacy = row("rule_definition", 1);
+        assertThat(RuleContentCodec.isEncoded((String) legacy.get("rule_content"))).isTrue();
+        assertThat(text.convertToEntityAttribute((String) legacy.get("rule_content"))).isEqualTo(DRL);
+        assertThat(legacy.get("rule_file")).isNull();
+
+        Map<String, Object> decisionTable = row("rule_definition", 2);
+        assertThat(RuleContentCodec.isEncoded((byte[]) decisionTable.get("rule_file"))).isTrue();
+        assertThat(bytes.convertToEntityAttribute((byte[]) decisionTable.get("rule_file"))).isEqualTo(XLS);
+        assertThat(text.convertToEntityAttribute((String) decisionTable.get("generated_drl"))).isEqualTo(DRL);
+
+        Map<String, Object> empty = row("rule_definition", 3);
+        assertThat(text.convertToEntityAttribute((String) empty.get("rule_content"))).isEmpty();
+        assertThat(bytes.convertToEntityAttribute((byte[]) empty.get("rule_file"))).isEmpty();
+
+        assertThat(text.convertToEntityAttribute((String) row("rule_definition", 4).get("rule_content")))
+                .isEqualTo("rule \"new\" when then end");
+
+        Map<String, Object> file = row("ruleset_file", 1);
+        assertThat(text.convertToEntityAttribute((String) file.get("content"))).isEqualTo(DRL);
+        assertThat(bytes.convertToEntityAttribute((byte[]) file.get("content_bytes")))
+                .isEqualTo(DRL.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void migratingTwiceChangesNothing() {
+        ContentCompressionMigration migration = new ContentCompressionMigration(jdbc, true, 2);
+        migration.migrateAll();
+        List<Map<String, Object>> once = all();
+
+        migration.migrateAll();
+
+        assertThat(all()).usingRecursiveComparison().isEqualTo(once);
+    }
+
+    private Map<String, Object> row(String table, long id) {
+        return jdbc.queryForMap("SELECT * FROM " + table + " WHERE id = ?", id);
+    }
+
+    private List<Map<String, Object>> all() {
+        List<Map<String, Object>> rows = jdbc.queryForList("SELECT * FROM rule_definition ORDER BY id");
+        rows.addAll(jdbc.queryForList("SELECT * FROM ruleset_file ORDER BY id"));
+        return rows;
+    }
+}
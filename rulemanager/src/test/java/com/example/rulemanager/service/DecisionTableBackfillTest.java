@@ -0,0 +1,110 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.converter.CompressedTextConverter;
+import com.example.rulemanager.util.RuleContentCodec;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionTableBackfillTest {
+
+    private static final String DRL = "rule \"r\" when then end";
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:backfill;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final CompressedTextConverter text = new CompressedTextConverter();
+    private final DecisionTableBackfill backfill = new DecisionTableBackfill(jdbc, new DecisionTableCompiler(), true, 2);
+
+    private byte[] table;
+
+    @BeforeEach
+    void createTable() throws IOException {
+        table = decisionTable();
+        jdbc.execute("CREATE TABLE rule_definition (id BIGINT PRIMARY KEY, rule_type VARCHAR(32), rule_content CLOB, "
+                + "rule_file BLOB, generated_drl CLOB, generated_from_hash VARCHAR(64))");
+        insert(1, "DECISION_TABLE", null, table, null);
+        insert(2, "DECISION_TABLE", null, RuleContentCodec.encode(table), null);
+        insert(3, "DECISION_TABLE", null, "not a spreadsheet".getBytes(StandardCharsets.UTF_8), null);
+        insert(4, "DECISION_TABLE", null, table, RuleContentCodec.encode(DRL));
+        insert(5, "DRL", DRL, null, null);
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbc.execute("DROP TABLE rule_definition");
+    }
+
+    @Test
+    void storedTablesGetTheirDrlOnce() {
+        assertThat(backfill.backfillAll()).isEqualTo(2);
+
+        for (long id : new long[] {1, 2}) {
+            RuleDefinition rule = load(id);
+            assertThat(rule.hasCurrentGeneratedDrl()).as("rule %d", id).isTrue();
+            assertThat(rule.getGeneratedDrl()).contains("rule \"Big_");
+        }
+        // tables that do not compile and ones already converted are left alone
+        assertThat(row(3).get("generated_drl")).isNull();
+        assertThat(text.convertToEntityAttribute((String) row(4).get("generated_drl"))).isEqualTo(DRL);
+        assertThat(row(5).get("generated_drl")).isNull();
+
+        assertThat(backfill.backfillAll()).isZero();
+    }
+
+    private void insert(long id, String type, String content, byte[] file, String generated) {
+        jdbc.update("INSERT INTO rule_definition (id, rule_type, rule_content, rule_file, generated_drl) "
+                + "VALUES (?, ?, ?, ?, ?)", id, type, content, file, generated);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbc.queryForMap("SELECT * FROM rule_definition WHERE id = ?", id);
+    }
+
+    private RuleDefinition load(long id) {
+        Map<String, Object> row = row(id);
+        RuleDefinition rule = new RuleDefinition();
+        rule.setRuleFile(RuleContentCodec.decode((byte[]) row.get("rule_file")));
+        rule.setGeneratedDrl(text.convertToEntityAttribute((String) row.get("generated_drl")));
+        rule.setGeneratedFromHash((String) row.get("generated_from_hash"));
+        return rule;
+    }
+
+    private static byte[] decisionTable() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Tables");
+            String[][] cells = {
+                    {"RuleSet", "test"},
+                    {"Import", "java.util.Map"},
+                    {},
+                    {"RuleTable Big"},
+                    {"CONDITION", "ACTION"},
+                    {"$m : Map", ""},
+                    {"this[\"amount\"] > $param", "$m.put(\"big\", $param);"},
+                    {"amount over", "flag"},
+                    {"100", "true"},
+            };
+            for (int r = 0; r < cells.length; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < cells[r].length; c++) {
+                    row.createCell(c).setCellValue(cells[r][c]);
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.ObjectRulesetMapping;
+import com.example.rulemanager.model.ObjectSessionState;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.ObjectRulesetMappingRepository;
+import com.example.rulemanager.repository.ObjectSessionStateRepository;
+import com.example.rulemanager.repository.RuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ObjectSessionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectRulesetMappingRepository mappings = mock(ObjectRulesetMappingRepository.class);
+    private final ObjectSessionStateRepository states = mock(ObjectSessionStateRepository.class);
+    private final CompiledRuleSetCache cache = mock(CompiledRuleSetCache.class);
+    // a budget of 0 MB evicts every session right after its change
+    private final ObjectSessionService service = new ObjectSessionService(mappings, states, cache,
+            mock(EvaluationAuditLog.class), new FactBinder(objectMapper), objectMapper, new SimpleMeterRegistry(),
+            100, 0, 30, false);
+
+    private final Map<String, ObjectSessionState> saved = new ConcurrentHashMap<>();
+    private final CountDownLatch savingFacts = new CountDownLatch(1);
+
+    @Test
+    void aChangeRightAfterAnEvictionSeesTheEvictedFacts() throws Exception {
+        ObjectRulesetMapping mapping = new ObjectRulesetMapping();
+        mapping.setRulesetId(1L);
+        when(mappings.findFirstByObjectTypeAndObjectKey("LOAN", "1")).thenReturn(mapping);
+        CompiledRuleSet compiled = compile();
+        when(cache.get(1L)).thenReturn(compiled);
+        when(states.findByObjectTypeAndObjectKey(anyString(), anyString()))
+                .thenAnswer(call -> Optional.ofNullable(saved.get(call.<String>getArgument(1))));
+        when(states.save(any())).thenAnswer(call -> {
+            ObjectSessionState state = call.getArgument(0);
+            if (!"[]".equals(state.getFactsJson())) savingFacts.countDown();
+            // a slow write, so the next change arrives while the evicted session is still being saved
+            Thread.sleep(300);
+            saved.put(state.getObjectKey(), state);
+            return state;
+        });
+
+        service.apply("LOAN", "1", objectMapper.readTree("{\"@id\": \"a\", \"kind\": \"a\"}"));
+        assertThat(savingFacts.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Map<String, Object> payload = service.apply("LOAN", "1", objectMapper.readTree("{\"@id\": \"b\", \"kind\": \"b\"}"));
+
+        assertThat(payload).containsEntry("rebuilt", "restored").containsEntry("factCount", 2);
+        assertThat(payload.get("firedRules")).asInstanceOf(InstanceOfAssertFactories.LIST).contains("both");
+    }
+
+    private static CompiledRuleSet compile() {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setId(1L);
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(1L);
+        rule.setRuleName("both");
+        rule.setRuleType(RuleType.DRL);
+        rule.setRuleContent("""
+                package test;
+                import java.util.Map;
+
+                rule "both"
+                when
+                    Map(this["kind"] == "a")
+                    Map(this["kind"] == "b")
+                then
+                end
+                """);
+        RuleRepository repository = mock(RuleRepository.class);
+        when(repository.findByRuleSetAndActiveTrue(ruleSet)).thenReturn(List.of(rule));
+        return new RuleService(repository, mock(ApplicationEventPublisher.class), new DecisionTableCompiler(),
+                new RulePartitioner(false)).compile(ruleSet);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.model.RuleChangeLog;
+import com.example.rulemanager.repository.RuleChangeLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleChangeLogServiceTest {
+
+    private final RuleChangeLogRepository repository = mock(RuleChangeLogRepository.class);
+    private final List<Long> published = new ArrayList<>();
+    private final ApplicationEventPublisher events = event -> {
+        if (event instanceof RuleChangeCommittedEvent committed) published.add(committed.getChange().getRulesetId());
+    };
+
+    @Test
+    void contiguousEntriesAreDeliveredOnceAndOwnEntriesSkipped() {
+        RuleChangeLogService service = service(10_000, 300_000);
+        when(repository.findMaxId()).thenReturn(10L);
+        service.poll();
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(row(11, "other"), row(12, "self"), row(13, "other")));
+        service.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(13L), any(Pageable.class))).thenReturn(List.of());
+        service.poll();
+
+        assertThat(published).containsExactly(11L, 13L);
+    }
+
+    @Test
+    void entryCommittingAfterItsGapWasSkippedIsStillDelivered() throws InterruptedException {
+        RuleChangeLogService service = service(0, 300_000);
+        when(repository.findMaxId()).thenReturn(10L);
+        service.poll();
+
+        // 12 commits first; 11 is still in flight
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class))).thenReturn(List.of(row(12, "other")));
+        when(repository.findByIdBetweenOrderByIdAsc(anyLong(), anyLong())).thenReturn(List.of());
+        service.poll();
+        Thread.sleep(5);
+        // grace period over: the mark skips the hole at 11
+        service.poll();
+        assertThat(published).containsExactly(12L);
+
+        // 11 commits late
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(12L), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByIdBetweenOrderByIdAsc(11L, 11L)).thenReturn(List.of(row(11, "other")));
+        service.poll();
+        service.poll();
+
+        assertThat(published).containsExactly(12L, 11L);
+    }
+
+    @Test
+    void skippedGapIsForgottenAfterItsRetention() throws InterruptedException {
+        RuleChangeLogService service = service(0, 0);
+        when(repository.findMaxId()).thenReturn(10L);
+        service.poll();
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class))).thenReturn(List.of(row(12, "other")));
+        service.poll();
+        Thread.sleep(5);
+        service.poll();
+        Thread.sleep(5);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(12L), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByIdBetweenOrderByIdAsc(11L, 11L)).thenReturn(List.of(row(11, "other")));
+        service.poll();
+
+        // documented loss: too late for the retained gap
+        assertThat(published).containsExactly(12L);
+    }
+
+    private RuleChangeLogService service(long gapGraceMs, long gapRetainMs) {
+        return new RuleChangeLogService(repository, events, "self", 500, gapGraceMs, gapRetainMs, 24);
+    }
+
+    /** The ruleset id doubles as the row id, so published events identify their row. */
+    private static RuleChangeLog row(long id, String nodeId) {
+        RuleChangeLog row = new RuleChangeLog();
+        row.setId(id);
+        row.setChangeType(RuleChangeType.RULE_SAVED);
+        row.setRulesetId(id);
+        row.setNodeId(nodeId);
+        row.setCreatedAt(LocalDateTime.now());
+        return row;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RulePartitionerTest {
+
+    private static final String MIXED = """
+            package test;
+            import java.util.Map;
+
+            declare Order
+                id : String
+                amount : double
+                flagged : boolean
+            end
+
+            declare Shipment
+                id : String
+                weight : double
+                heavy : boolean
+            end
+
+            rule "big order"
+            when
+                $o : Order(amount > 100)
+            then
+                modify($o) { setFlagged(true) }
+            end
+
+            rule "heavy shipment"
+            when
+                $s : Shipment(weight > 10)
+            then
+                modify($s) { setHeavy(true) }
+            end
+
+            rule "no shipments"
+            when
+                not Shipment()
+            then
+            end
+
+            rule "ping"
+            when
+                $m : Map(this["kind"] == "ping")
+            then
+                $m.put("pong", true);
+            end
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FactBinder binder = new FactBinder(objectMapper);
+    private final FactEvaluationService evaluation = new FactEvaluationService(mock(CompiledRuleSetCache.class),
+            mock(EvaluationResultCache.class), mock(ShadowEvaluationService.class), mock(EvaluationAuditLog.class),
+            binder, objectMapper, 100);
+
+    @Test
+    void independentFactTypesGetTheirOwnPartitions() {
+        List<FactPartition> partitions = new RulePartitioner(true).partition(1L, List.of(drl(MIXED)));
+
+        assertThat(partitions).extracting(FactPartition::getRuleCount).containsExactlyInAnyOrder(1, 2, 1);
+        assertThat(partitions).filteredOn(FactPartition::isAlwaysRun).singleElement()
+                .satisfies(p -> assertThat(p.ownsDeclaredType("test.Shipment")).isTrue());
+    }
+
+    @Test
+    void partitionedEvaluationFiresWhatTheSingleKieBaseFires() {
+        CompiledRuleSet partitioned = compile(true, MIXED);
+        CompiledRuleSet monolithic = compile(false, MIXED);
+        assertThat(partitioned.isPartitioned()).isTrue();
+        assertThat(monolithic.isPartitioned()).isFalse();
+
+        List<String> inputs = List.of(
+                "[{\"@type\":\"test.Order\",\"id\":\"o1\",\"amount\":150},"
+                        + "{\"@type\":\"test.Shipment\",\"id\":\"s1\",\"weight\":20},{\"kind\":\"ping\"}]",
+                "[{\"@type\":\"test.Order\",\"id\":\"o1\",\"amount\":50}]",
+                "[{\"kind\":\"ping\"},{\"@type\":\"test.Shipment\",\"id\":\"s1\",\"weight\":5}]",
+                "[]");
+        for (String input : inputs) {
+            Outcome expected = evaluate(monolithic, input);
+            Outcome actual = evaluate(partitioned, input);
+
+            assertThat(actual.fired()).as(input).containsExactlyInAnyOrderElementsOf(expected.fired());
+            assertThat(actual.facts()).as(input).isEqualTo(expected.facts());
+        }
+        // the always-run partition fires without any fact routed to it
+        assertThat(evaluate(partitioned, "[]").fired()).containsExactly("no shipments");
+    }
+
+    @Test
+    void declaredTypesBindToTheirOwningPartition() throws Exception {
+        CompiledRuleSet compiled = compile(true, MIXED);
+        JsonNode json = objectMapper.readTree("{\"@type\":\"test.Shipment\",\"id\":\"s1\",\"weight\":20}");
+
+        Object fact = binder.bind(json, compiled.getKieBaseForType("test.Shipment"));
+
+        List<FactPartition> accepting = compiled.getPartitions().stream().filter(p -> p.accepts(fact)).toList();
+        assertThat(accepting).singleElement().satisfies(p -> {
+            assertThat(p.ownsDeclaredType("test.Shipment")).isTrue();
+            assertThat(p.getKieBase().getFactType("test", "Shipment").getFactClass()).isSameAs(fact.getClass());
+        });
+        // maps only go to the partition matching Map patterns
+        assertThat(compiled.getPartitions()).filteredOn(p -> p.accepts(new LinkedHashMap<>())).hasSize(1);
+    }
+
+    @Test
+    void sessionWideConstructsKeepTheRulesetMonolithic() {
+        RulePartitioner partitioner = new RulePartitioner(true);
+
+        assertThat(partitioner.partition(1L, List.of(drl(MIXED), drl("""
+                package other;
+                rule "focused" agenda-group "later"
+                when
+                    String()
+                then
+                end
+                """)))).isEmpty();
+        assertThat(partitioner.partition(1L, List.of(drl(MIXED), drl("""
+                package other;
+                query "strings"
+                    $s : String()
+                end
+                """)))).isEmpty();
+        assertThat(partitioner.partition(1L, List.of(drl(MIXED), drl("""
+                package other;
+                rule "echo"
+                when
+                    $s : String()
+                then
+                    Object copy = $s;
+                    insert(copy);
+                end
+                """)))).isEmpty();
+        assertThat(new RulePartitioner(false).partition(1L, List.of(drl(MIXED)))).isEmpty();
+    }
+
+    @Test
+    void rulesConnectedThroughInsertedFactsStayTogether() {
+        List<FactPartition> partitions = new RulePartitioner(true).partition(1L, List.of(drl("""
+                package test;
+
+                declare Order
+                    amount : double
+                end
+
+                declare Review
+                    reason : String
+                end
+
+                declare Invoice
+                    total : double
+                end
+
+                rule "review big orders"
+                when
+                    Order(amount > 1000)
+                then
+                    insert(new Review("big"));
+                end
+
+                rule "count reviews"
+                when
+                    Review()
+                then
+                end
+
+                rule "invoices"
+                when
+                    Invoice()
+                then
+                end
+                """)));
+
+        assertThat(partitions).hasSize(2);
+        assertThat(partitions).filteredOn(p -> p.ownsDeclaredType("test.Order")).singleElement()
+                .satisfies(p -> assertThat(p.ownsDeclaredType("test.Review")).isTrue());
+    }
+
+    private record Outcome(List<String> fired, List<JsonNode> facts) {}
+
+    private Outcome evaluate(CompiledRuleSet compiled, String input) {
+        try {
+            List<Object> facts = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(input)) {
+                String type = node.path(FactBinder.TYPE_PROPERTY).textValue();
+                facts.add(binder.bind(node, compiled.getKieBaseForType(type)));
+            }
+            List<String> fired = evaluation.run(compiled, facts);
+            List<JsonNode> out = new ArrayList<>();
+            facts.forEach(f -> out.add(binder.unbind(f)));
+            return new Outcome(fired, out);
+        } catch (Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static RuleDefinition drl(String content) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setRuleName("rules");
+        rule.setRuleType(RuleType.DRL);
+        rule.setRuleContent(content);
+        return rule;
+    }
+
+    private static CompiledRuleSet compile(boolean partitioning, String content) {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setId(1L);
+        RuleDefinition rule = drl(content);
+        rule.setId(1L);
+        RuleRepository repository = mock(RuleRepository.class);
+        when(repository.findByRuleSetAndActiveTrue(ruleSet)).thenReturn(List.of(rule));
+        return new RuleService(repository, mock(ApplicationEventPublisher.class), new DecisionTableCompiler(),
+                new RulePartitioner(partitioning)).compile(ruleSet);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.event.RuleChangeCommittedEvent;
+import com.example.rulemanager.event.RuleChangeEvent;
+import com.example.rulemanager.event.RuleChangeType;
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleSearchIndexTest {
+
+    private final RuleRepository rules = mock(RuleRepository.class);
+    private final RuleSearchIndex index = new RuleSearchIndex(rules, mock(EntityManager.class),
+            mock(PlatformTransactionManager.class));
+
+    private RuleDefinition discount;
+    private RuleDefinition scoring;
+    private RuleDefinition limits;
+
+    @BeforeEach
+    void buildIndex() {
+        discount = rule(1L, 10L, "LoyaltyDiscount", """
+                rule "loyalty discount"
+                when $c : Customer(loyaltyYears > 5, creditScore > 600)
+                then $c.setDiscount(10);
+                end
+                """);
+        scoring = rule(2L, 10L, "CreditScoring", """
+                rule "credit"
+                when $c : Customer(creditScore < 400)
+                then $c.setRisk("high"); $c.setCreditLimit(0);
+                end
+                """);
+        limits = rule(3L, 20L, "limits", """
+                rule "max_loan_amount"
+                when $l : Loan(amount > 100000)
+                then $l.setRejected(true);
+                end
+                """);
+        when(rules.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(discount, scoring, limits)));
+        index.buildInBackground();
+        await().atMost(Duration.ofSeconds(10)).until(index::isReady);
+    }
+
+    @AfterEach
+    void shutdown() {
+        index.shutdown();
+    }
+
+    @Test
+    void identifiersAreIndexedWholeAndByPart() {
+        Map<String, Integer> counts = new HashMap<>();
+        RuleSearchIndex.tokenize("creditScore max_loan_amount HTTPServer x", 1, counts);
+
+        assertThat(counts).containsOnlyKeys("creditscore", "credit", "score", "max_loan_amount", "max", "loan",
+                "amount", "httpserver", "http", "server");
+
+        counts.clear();
+        RuleSearchIndex.tokenize("credit creditLimit", 3, counts);
+        assertThat(counts).containsEntry("credit", 6).containsEntry("limit", 3);
+    }
+
+    @Test
+    void nameMatchesRankAboveContentMatches() {
+        RuleSearchIndex.Result result = index.search("credit", null, 0, 10);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).extracting(RuleSearchIndex.Hit::ruleId).containsExactly(2L, 1L);
+        assertThat(result.hits().get(0).score()).isGreaterThan(result.hits().get(1).score());
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        assertThat(hits("creditScore loyalty")).containsExactly(1L);
+        assertThat(hits("creditScore loan")).isEmpty();
+        assertThat(hits("CREDITSCORE")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void prefixQueriesAndRulesetFilter() {
+        assertThat(hits("loy*")).containsExactly(1L);
+        assertThat(hits("ris*")).containsExactly(2L);
+        assertThat(index.search("customer", 20L, 0, 10).total()).isZero();
+        assertThat(index.search("amount", 20L, 0, 10).hits()).extracting(RuleSearchIndex.Hit::ruleId)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void resultsArePaged() {
+        RuleSearchIndex.Result second = index.search("customer", null, 1, 1);
+
+        assertThat(second.total()).isEqualTo(2);
+        assertThat(second.hits()).hasSize(1);
+    }
+
+    @Test
+    void savedAndDeletedRulesAreReindexed() {
+        scoring.setRuleContent("rule \"credit\" when $c : Customer(bankrupt == true) then end");
+        when(rules.findById(2L)).thenReturn(Optional.of(scoring));
+        index.onChange(committed(RuleChangeEvent.rule(RuleChangeType.RULE_SAVED, 10L, 2, 2L)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> hits("bankrupt").equals(List.of(2L)));
+        assertThat(hits("risk")).isEmpty();
+
+        when(rules.findById(2L)).thenReturn(Optional.empty());
+        index.onChange(committed(RuleChangeEvent.rule(RuleChangeType.RULE_DELETED, 10L, 3, 2L)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> hits("bankrupt").isEmpty());
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rulesetUpdatesDropRulesNoLongerInTheRuleset() {
+        RuleDefinition replacement = rule(4L, 10L, "Vip", "rule \"vip\" when Customer(vip == true) then end");
+        when(rules.findByRuleSetId(10L)).thenReturn(List.of(replacement));
+        index.onChange(committed(RuleChangeEvent.ruleset(RuleChangeType.RULESET_UPDATED, 10L, 2)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> hits("vip").equals(List.of(4L)));
+        assertThat(hits("customer")).containsExactly(4L);
+        assertThat(hits("loan")).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private List<Long> hits(String query) {
+        return index.search(query, null, 0, 10).hits().stream().map(RuleSearchIndex.Hit::ruleId).toList();
+    }
+
+    private static RuleChangeCommittedEvent committed(RuleChangeEvent change) {
+        return new RuleChangeCommittedEvent(change, false);
+    }
+
+    private static RuleDefinition rule(Long id, Long rulesetId, String name, String drl) {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setId(rulesetId);
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(id);
+        rule.setRuleSet(ruleSet);
+        rule.setRuleName(name);
+        rule.setRuleType(RuleType.DRL);
+        rule.setRuleContent(drl);
+        return rule;
+    }
+}
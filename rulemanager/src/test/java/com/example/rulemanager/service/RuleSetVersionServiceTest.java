@@ -0,0 +1,92 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSetVersionEntry;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleSetVersionEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleSetVersionServiceTest {
+
+    private final RuleSetVersionEntryRepository entries = mock(RuleSetVersionEntryRepository.class);
+    private final RuleSetVersionService service = new RuleSetVersionService(entries);
+
+    private RuleDefinition unchanged;
+    private RuleDefinition edited;
+    private RuleDefinition removed;
+
+    @BeforeEach
+    void publishVersionOne() {
+        unchanged = rule(1L, "a", "rule A when then end");
+        edited = rule(2L, "b", "rule B when then end");
+        removed = rule(3L, "c", "rule C when then end");
+        List<RuleSetVersionEntry> manifest = List.of(entry(unchanged), entry(edited), entry(removed));
+        when(entries.findByRulesetIdAndVersion(10L, 1)).thenReturn(manifest);
+        when(entries.existsByRulesetIdAndVersion(10L, 1)).thenReturn(true);
+    }
+
+    @Test
+    void diffReportsAddedModifiedAndRemovedRules() {
+        edited.setRuleContent("rule B when eval(true) then end");
+        RuleDefinition added = rule(4L, "d", "rule D when then end");
+
+        RuleSetVersionService.Delta delta = service.diff(10L, 1, List.of(unchanged, edited, added));
+
+        assertThat(delta.added()).containsExactly(added);
+        assertThat(delta.modified()).containsExactly(edited);
+        assertThat(delta.removed()).extracting(RuleSetVersionEntry::getRuleId).containsExactly(3L);
+    }
+
+    @Test
+    void renamedOrDeactivatedRulesCountAsModified() {
+        unchanged.setRuleName("a2");
+        edited.setActive(false);
+
+        RuleSetVersionService.Delta delta = service.diff(10L, 1, List.of(unchanged, edited, removed));
+
+        assertThat(delta.added()).isEmpty();
+        assertThat(delta.modified()).containsExactly(unchanged, edited);
+        assertThat(delta.removed()).isEmpty();
+    }
+
+    @Test
+    void currentRulesMatchOnlyTheManifestTheyWerePublishedAs() {
+        assertThat(service.matchesSnapshot(10L, 1, List.of(unchanged, edited, removed))).isTrue();
+
+        // an unpublished edit must not be labelled as version 1
+        edited.setRuleContent("rule B when eval(false) then end");
+        assertThat(service.matchesSnapshot(10L, 1, List.of(unchanged, edited, removed))).isFalse();
+
+        // no manifest for the version at all
+        assertThat(service.matchesSnapshot(10L, 2, List.of(unchanged, edited, removed))).isFalse();
+    }
+
+    private static RuleDefinition rule(Long id, String name, String drl) {
+        RuleDefinition r = new RuleDefinition();
+        r.setId(id);
+        r.setRuleName(name);
+        r.setRuleType(RuleType.DRL);
+        r.setRuleContent(drl);
+        r.setActive(true);
+        return r;
+    }
+
+    private static RuleSetVersionEntry entry(RuleDefinition r) {
+        RuleSetVersionEntry e = new RuleSetVersionEntry();
+        e.setRulesetId(10L);
+        e.setVersion(1);
+        e.setRuleId(r.getId());
+        e.setRuleName(r.getRuleName());
+        e.setRuleType(r.getRuleType());
+        e.setActive(r.isActive());
+        e.setContentHash(RuleSetVersionService.hashOf(r));
+        return e;
+    }
+}
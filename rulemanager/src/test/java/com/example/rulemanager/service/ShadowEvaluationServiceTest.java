@@ -0,0 +1,127 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.example.rulemanager.repository.RuleSetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShadowEvaluationServiceTest {
+
+    private static final String BODY = "{\"amount\": 500}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CompiledRuleSetCache cache = mock(CompiledRuleSetCache.class);
+    private final RuleSetRepository ruleSets = mock(RuleSetRepository.class);
+    private final EvaluationResultCache results = mock(EvaluationResultCache.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ShadowEvaluationService shadows =
+            new ShadowEvaluationService(cache, ruleSets, new SimpleMeterRegistry(), executor);
+    private final FactEvaluationService evaluation = new FactEvaluationService(cache, results, shadows,
+            mock(EvaluationAuditLog.class), new FactBinder(objectMapper), objectMapper, 100);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void cachedLiveOutcomesAreComparedButNotTimed() throws Exception {
+        CompiledRuleSet live = compile(1L, 100);
+        CompiledRuleSet draft = compile(2L, 1000);
+        when(cache.get(1L)).thenReturn(live);
+        when(cache.get(2L)).thenReturn(draft);
+        when(ruleSets.findById(1L)).thenReturn(Optional.of(ruleSet(1L, "PUBLISHED")));
+        when(ruleSets.findById(2L)).thenReturn(Optional.of(ruleSet(2L, "DRAFT")));
+        shadows.start(1L, 2L, 1.0);
+
+        when(results.appliesTo(any())).thenReturn(true);
+        when(results.hash(any())).thenReturn("h");
+        EvaluationResultCache.Result cached = new EvaluationResultCache.Result(List.of("big"),
+                List.of(objectMapper.readTree("{\"amount\": 500, \"big\": true}")));
+        when(results.get(eq(live), anyString())).thenReturn(cached);
+
+        Map<String, Object> hit = evaluate();
+        assertThat(hit).containsEntry("cached", true);
+        Map<String, Object> report = report();
+        assertThat(report).containsEntry("sampled", 1L).containsEntry("compared", 1L)
+                .containsEntry("comparedFromCache", 1L).containsEntry("firedRulesDiffer", 1L);
+        assertThat(latency(report, "liveLatencyMicros")).containsEntry("count", 0L);
+
+        when(results.get(eq(live), anyString())).thenReturn(null);
+        Map<String, Object> miss = evaluate();
+        assertThat(miss).doesNotContainKey("cached");
+        report = report();
+        assertThat(report).containsEntry("compared", 2L).containsEntry("comparedFromCache", 1L)
+                .containsEntry("firedRulesDiffer", 2L);
+        assertThat(latency(report, "liveLatencyMicros")).containsEntry("count", 1L);
+        assertThat(latency(report, "draftLatencyMicros")).containsEntry("count", 1L);
+    }
+
+    private Map<String, Object> evaluate() throws IOException {
+        return evaluation.evaluateJson(1L, null, null, new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Replays run on the shadow pool; wait for the queued ones before reading the report. */
+    private Map<String, Object> report() throws Exception {
+        executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        return shadows.report(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> latency(Map<String, Object> report, String key) {
+        return (Map<String, Object>) report.get(key);
+    }
+
+    private static RuleSet ruleSet(Long id, String status) {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setId(id);
+        ruleSet.setStatus(status);
+        return ruleSet;
+    }
+
+    private static CompiledRuleSet compile(Long rulesetId, int threshold) {
+        RuleSet ruleSet = ruleSet(rulesetId, "DRAFT");
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(rulesetId);
+        rule.setRuleName("big");
+        rule.setRuleType(RuleType.DRL);
+        rule.setRuleContent("""
+                package test;
+                import java.util.Map;
+
+                rule "big"
+                when
+                    $m : Map(this["amount"] > %d)
+                then
+                    $m.put("big", true);
+                end
+                """.formatted(threshold));
+        RuleRepository repository = mock(RuleRepository.class);
+        when(repository.findByRuleSetAndActiveTrue(ruleSet)).thenReturn(List.of(rule));
+        return new RuleService(repository, mock(ApplicationEventPublisher.class), new DecisionTableCompiler(),
+                new RulePartitioner(false)).compile(ruleSet);
+    }
+}
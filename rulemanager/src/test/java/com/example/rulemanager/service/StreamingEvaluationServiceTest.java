@@ -0,0 +1,120 @@
+package com.example.rulemanager.service;
+
+import com.example.rulemanager.model.RuleDefinition;
+import com.example.rulemanager.model.RuleSet;
+import com.example.rulemanager.model.RuleType;
+import com.example.rulemanager.repository.RuleRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingEvaluationServiceTest {
+
+    private static final String DRL = """
+            package test;
+            import java.util.Map;
+
+            rule "big"
+            when
+                $m : Map(this["amount"] > 100)
+            then
+                $m.put("big", true);
+            end
+
+            rule "explode"
+            when
+                Map(this["explode"] == true)
+            then
+                throw new IllegalStateException("boom");
+            end
+            """;
+
+    private static final String INPUT = String.join("\n",
+            "{\"amount\": 500}",
+            "{\"amount\": ",
+            "",
+            "{\"amount\": 5}",
+            "[1, 2]",
+            "{\"explode\": true}",
+            "{\"amount\": 200}") + "\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final StreamingEvaluationService service = new StreamingEvaluationService(
+            factEvaluationService(), objectMapper, executor);
+    private final CompiledRuleSet compiled = compile();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void badRecordsGetAnErrorLineAndTheStreamGoesOn() throws IOException {
+        assertBadRecordsReported(evaluate(3, false));
+    }
+
+    @Test
+    void failuresInParallelChunksAreReportedPerRecord() throws IOException {
+        assertBadRecordsReported(evaluate(3, true));
+    }
+
+    private static void assertBadRecordsReported(List<JsonNode> lines) {
+        assertThat(lines).extracting(l -> l.get("index").asInt()).containsExactly(0, 1, 2, 3, 4, 5);
+
+        assertThat(lines.get(0).get("firedRules").get(0).asText()).isEqualTo("big");
+        assertThat(lines.get(0).get("fact").get("big").asBoolean()).isTrue();
+        assertThat(lines.get(1).get("error").asText()).startsWith("malformed JSON");
+        assertThat(lines.get(2).get("firedRules")).isEmpty();
+        assertThat(lines.get(3).get("error").asText()).isEqualTo("facts must be JSON objects");
+        assertThat(lines.get(4).get("error").asText()).contains("boom");
+        assertThat(lines.get(4).has("firedRules")).isFalse();
+        assertThat(lines.get(5).get("firedRules").get(0).asText()).isEqualTo("big");
+    }
+
+    private List<JsonNode> evaluate(int chunkSize, boolean parallel) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.evaluate(compiled, new ByteArrayInputStream(INPUT.getBytes(StandardCharsets.UTF_8)), out,
+                chunkSize, parallel);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private FactEvaluationService factEvaluationService() {
+        return new FactEvaluationService(mock(CompiledRuleSetCache.class), mock(EvaluationResultCache.class),
+                mock(ShadowEvaluationService.class), mock(EvaluationAuditLog.class),
+                new FactBinder(objectMapper), objectMapper, 100);
+    }
+
+    private static CompiledRuleSet compile() {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setId(1L);
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(1L);
+        rule.setRuleName("stream");
+        rule.setRuleType(RuleType.DRL);
+        rule.setRuleContent(DRL);
+        RuleRepository repository = mock(RuleRepository.class);
+        when(repository.findByRuleSetAndActiveTrue(ruleSet)).thenReturn(List.of(rule));
+        return new RuleService(repository, mock(ApplicationEventPublisher.class), new DecisionTableCompiler(),
+                new RulePartitioner(false)).compile(ruleSet);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.rulemanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleContentCodecTest {
+
+    private static final String DRL = "rule \"r\" when $m : Map(this[\"amount\"] > 100) then end\n".repeat(20);
+
+    @Test
+    void largeTextIsDeflatedBehindTheTextMarker() {
+        String encoded = RuleContentCodec.encode(DRL);
+
+        assertThat(encoded).startsWith(RuleContentCodec.textMagic() + "1:");
+        assertThat(encoded.length()).isLessThan(DRL.length());
+        assertThat(RuleContentCodec.isEncoded(encoded)).isTrue();
+        assertThat(RuleContentCodec.decode(encoded)).isEqualTo(DRL);
+    }
+
+    @Test
+    void smallTextIsStoredAsIs() {
+        String encoded = RuleContentCodec.encode("rule \"r\" when then end");
+
+        assertThat(encoded).isEqualTo(RuleContentCodec.textMagic() + "0:rule \"r\" when then end");
+        assertThat(RuleContentCodec.decode(encoded)).isEqualTo("rule \"r\" when then end");
+    }
+
+    @Test
+    void nullAndEmptyValuesRoundTrip() {
+        assertThat(RuleContentCodec.encode((String) null)).isNull();
+        assertThat(RuleContentCodec.decode((String) null)).isNull();
+        assertThat(RuleContentCodec.encode((byte[]) null)).isNull();
+        assertThat(RuleContentCodec.decode((byte[]) null)).isNull();
+
+        assertThat(RuleContentCodec.decode(RuleContentCodec.encode(""))).isEmpty();
+        assertThat(RuleContentCodec.decode(RuleContentCodec.encode(new byte[0]))).isEmpty();
+    }
+
+    @Test
+    void legacyValuesAreReturnedUnchanged() {
+        assertThat(RuleContentCodec.decode(DRL)).isEqualTo(DRL);
+        assertThat(RuleContentCodec.decode("")).isEmpty();
+        // a prefix of the marker is not the marker
+        assertThat(RuleContentCodec.decode("\u0001RM0:x")).isEqualTo("\u0001RM0:x");
+        assertThat(RuleContentCodec.decode(RuleContentCodec.textMagic())).isEqualTo(RuleContentCodec.textMagic());
+
+        byte[] legacy = DRL.getBytes(StandardCharsets.UTF_8);
+        assertThat(RuleContentCodec.decode(legacy)).isSameAs(legacy);
+        byte[] magicOnly = RuleContentCodec.binaryMagic();
+        assertThat(RuleContentCodec.decode(magicOnly)).isSameAs(magicOnly);
+    }
+
+    @Test
+    void binaryDecisionTablesRoundTrip() {
+        // OLE2 header (legacy .xls) followed by the mostly empty sectors real workbooks have
+        byte[] xls = new byte[8192];
+        byte[] ole2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+        System.arraycopy(ole2, 0, xls, 0, ole2.length);
+
+        byte[] encoded = RuleContentCodec.encode(xls);
+
+        assertThat(RuleContentCodec.isEncoded(encoded)).isTrue();
+        assertThat(encoded.length).isLessThan(xls.length);
+        assertThat(RuleContentCodec.decode(encoded)).isEqualTo(xls);
+    }
+
+    @Test
+    void incompressibleBytesAreStoredAsIs() {
+        // already-deflated content, like the zip container of an .xlsx
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+
+        byte[] encoded = RuleContentCodec.encode(random);
+
+        assertThat(encoded.length).isEqualTo(random.length + 5);
+        assertThat(encoded[4]).isZero();
+        assertThat(RuleContentCodec.decode(encoded)).isEqualTo(random);
+    }
+
+    @Test
+    void corruptCompressedContentFailsLoudly() {
+        byte[] encoded = RuleContentCodec.encode(DRL.getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertThatThrownBy(() -> RuleContentCodec.decode(truncated)).isInstanceOf(IllegalStateException.class);
+    }
+}